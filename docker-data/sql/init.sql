@@ -1,19 +1,26 @@
--- Create borrower table
+-- Create borrower table; IDs come from a pooled sequence so imports can be batched
+CREATE SEQUENCE borrower_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE borrower (
-  id BIGINT PRIMARY KEY GENERATED ALWAYS AS IDENTITY,
+  id BIGINT PRIMARY KEY DEFAULT nextval('borrower_seq'),
   name VARCHAR(255) NOT NULL,
   email VARCHAR(255) NOT NULL UNIQUE
 );
 
--- Create book table
+-- Create book table; IDs come from a pooled sequence so inserts can be batched
+CREATE SEQUENCE book_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE book (
-  id BIGINT PRIMARY KEY GENERATED ALWAYS AS IDENTITY,
+  id BIGINT PRIMARY KEY DEFAULT nextval('book_seq'),
   isbn VARCHAR(17) NOT NULL,
   title VARCHAR(255) NOT NULL,
   author VARCHAR(255) NOT NULL,
   is_available BOOLEAN DEFAULT true
 );
 
+-- ISBN lookups run on every registration; including availability keeps per-ISBN copy counts index-only
+CREATE INDEX idx_book_isbn_available ON book (isbn, is_available);
+
 -- Create book_borrow table with corrected types for borrower_id and book_id
 CREATE TABLE book_borrow (
   id BIGINT PRIMARY KEY GENERATED ALWAYS AS IDENTITY,
@@ -24,3 +31,70 @@ CREATE TABLE book_borrow (
   FOREIGN KEY (borrower_id) REFERENCES borrower(id) ON DELETE CASCADE,
   FOREIGN KEY (book_id) REFERENCES book(id) ON DELETE CASCADE
 );
+
+-- At most one open borrow per book; backs the conditional claim in BookService.borrowBook
+CREATE UNIQUE INDEX ux_book_borrow_active ON book_borrow (book_id) WHERE return_date IS NULL;
+
+-- Overdue report: active loans ordered by borrow date, and grouped by borrower
+CREATE INDEX idx_book_borrow_active_due ON book_borrow (borrow_date, id) WHERE return_date IS NULL;
+CREATE INDEX idx_book_borrow_active_borrower ON book_borrow (borrower_id, borrow_date) WHERE return_date IS NULL;
+
+-- A borrower's loan history, newest first
+CREATE INDEX idx_book_borrow_borrower ON book_borrow (borrower_id, id);
+
+-- Catalog versions behind the ETag and Last-Modified validators, shared by all instances
+CREATE TABLE catalog_version (
+  catalog VARCHAR(16) PRIMARY KEY,
+  version BIGINT NOT NULL,
+  changed_at BIGINT NOT NULL
+);
+
+INSERT INTO catalog_version (catalog, version, changed_at) VALUES
+  ('BOOKS', 0, 0),
+  ('BORROWERS', 0, 0);
+
+-- Catalog change feed: the latest change per book, numbered from a sequence
+CREATE SEQUENCE catalog_change_seq;
+
+CREATE TABLE catalog_change (
+  book_id BIGINT PRIMARY KEY,
+  seq BIGINT NOT NULL,
+  change_type VARCHAR(16) NOT NULL,
+  changed_at TIMESTAMP NOT NULL,
+  FOREIGN KEY (book_id) REFERENCES book(id) ON DELETE CASCADE
+);
+
+CREATE UNIQUE INDEX ux_catalog_change_seq ON catalog_change (seq);
+
+-- Hold queue per title; a returned copy is set aside for the oldest waiting hold
+CREATE TABLE book_hold (
+  id BIGINT PRIMARY KEY GENERATED ALWAYS AS IDENTITY,
+  borrower_id BIGINT NOT NULL,
+  isbn VARCHAR(17) NOT NULL,
+  status VARCHAR(16) NOT NULL,
+  book_id BIGINT,
+  placed_at TIMESTAMP NOT NULL,
+  ready_at TIMESTAMP,
+  expires_at TIMESTAMP,
+  FOREIGN KEY (borrower_id) REFERENCES borrower(id) ON DELETE CASCADE,
+  FOREIGN KEY (book_id) REFERENCES book(id) ON DELETE CASCADE
+);
+
+-- Waiting holds of a title in queue order, and expiring ready holds
+CREATE INDEX idx_book_hold_queue ON book_hold (isbn, id) WHERE status = 'WAITING';
+CREATE INDEX idx_book_hold_ready ON book_hold (expires_at) WHERE status = 'READY';
+
+-- At most one open hold per borrower and title
+CREATE UNIQUE INDEX ux_book_hold_open ON book_hold (borrower_id, isbn) WHERE status IN ('WAITING', 'READY');
+
+-- Responses of borrow and return requests sent with an Idempotency-Key; response_status is NULL while in progress
+CREATE TABLE idempotency_record (
+  idempotency_key VARCHAR(255) PRIMARY KEY,
+  fingerprint VARCHAR(64) NOT NULL,
+  response_status INTEGER,
+  content_type VARCHAR(255),
+  response_body VARCHAR(16384),
+  created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_idempotency_record_created ON idempotency_record (created_at);
@@ -0,0 +1,76 @@
+package com.example.book_borrowing_system.controller;
+
+import com.example.book_borrowing_system.dto.BookBorrowDto;
+import com.example.book_borrowing_system.dto.BookDto;
+import com.example.book_borrowing_system.model.Book;
+import com.example.book_borrowing_system.model.BookBorrow;
+import com.example.book_borrowing_system.model.Borrower;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the entity to DTO conversions of BookController over {@code datasetSize} entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ResponseConversionBenchmark {
+
+    @Param({"100", "10000"})
+    private int datasetSize;
+
+    private List<Book> books;
+    private List<BookBorrow> borrows;
+
+    @Setup(Level.Trial)
+    public void createEntities() {
+        Borrower borrower = new Borrower();
+        borrower.setId(1L);
+        borrower.setName("Benchmark Reader");
+        borrower.setEmail("benchmark.reader@example.com");
+
+        books = new ArrayList<>(datasetSize);
+        borrows = new ArrayList<>(datasetSize);
+        LocalDateTime borrowDate = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < datasetSize; i++) {
+            Book book = new Book();
+            book.setId((long) i);
+            book.setIsbn(String.format("JMH-%09d", i));
+            book.setTitle("Benchmark Title " + i);
+            book.setAuthor("Benchmark Author");
+            book.setAvailable(i % 2 == 0);
+            books.add(book);
+
+            BookBorrow borrow = new BookBorrow();
+            borrow.setId((long) i);
+            borrow.setBook(book);
+            borrow.setBorrower(borrower);
+            borrow.setBorrowDate(borrowDate.plusMinutes(i));
+            borrows.add(borrow);
+        }
+    }
+
+    @Benchmark
+    public void convertBooks(Blackhole blackhole) {
+        for (Book book : books) {
+            BookDto.Response response = BookController.convertToResponse(book);
+            blackhole.consume(response);
+        }
+    }
+
+    @Benchmark
+    public void convertBorrows(Blackhole blackhole) {
+        for (BookBorrow borrow : borrows) {
+            BookBorrowDto.Response response = BookController.convertToResponse(borrow);
+            blackhole.consume(response);
+        }
+    }
+}
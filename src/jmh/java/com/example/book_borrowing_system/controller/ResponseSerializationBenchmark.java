@@ -0,0 +1,94 @@
+package com.example.book_borrowing_system.controller;
+
+import com.example.book_borrowing_system.dto.BookDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization of {@code datasetSize} book responses, as returned by GET /api/books,
+ * with and without borrow history. The mapper is configured like the one Spring Boot provides.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ResponseSerializationBenchmark {
+
+    private static final int HISTORY_PER_BOOK = 5;
+
+    @Param({"100", "10000"})
+    private int datasetSize;
+
+    private ObjectWriter writer;
+    private List<BookDto.Response> responses;
+    private List<BookDto.Response> responsesWithHistory;
+    private ByteArrayOutputStream buffer;
+
+    @Setup(Level.Trial)
+    public void createResponses() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, BookDto.Response.class));
+        responses = new ArrayList<>(datasetSize);
+        responsesWithHistory = new ArrayList<>(datasetSize);
+        buffer = new ByteArrayOutputStream(1 << 20);
+
+        LocalDateTime borrowDate = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < datasetSize; i++) {
+            responses.add(response(i, borrowDate, null));
+
+            List<BookDto.BorrowHistoryResponse> history = new ArrayList<>(HISTORY_PER_BOOK);
+            for (int h = 0; h < HISTORY_PER_BOOK; h++) {
+                BookDto.BorrowHistoryResponse entry = new BookDto.BorrowHistoryResponse();
+                entry.setBorrowId((long) i * HISTORY_PER_BOOK + h);
+                entry.setBorrowerId(h);
+                entry.setBorrowerName("Benchmark Reader " + h);
+                entry.setBorrowerEmail("reader" + h + "@example.com");
+                entry.setBorrowDate(borrowDate.plusDays(h * 14L));
+                entry.setReturnDate(borrowDate.plusDays(h * 14L + 7));
+                history.add(entry);
+            }
+            responsesWithHistory.add(response(i, borrowDate, history));
+        }
+    }
+
+    private static BookDto.Response response(int i, LocalDateTime borrowDate,
+                                             List<BookDto.BorrowHistoryResponse> history) {
+        BookDto.Response response = new BookDto.Response();
+        response.setId((long) i);
+        response.setIsbn(String.format("JMH-%09d", i));
+        response.setTitle("Benchmark Title " + i);
+        response.setAuthor("Benchmark Author");
+        response.setAvailable(i % 2 == 0);
+        if (i % 2 != 0) {
+            response.setExpectedReturnDate(borrowDate.plusWeeks(2));
+        }
+        response.setBorrowHistory(history);
+        return response;
+    }
+
+    @Benchmark
+    public int serializeBooks() throws IOException {
+        buffer.reset();
+        writer.writeValue(buffer, responses);
+        return buffer.size();
+    }
+
+    @Benchmark
+    public int serializeBooksWithHistory() throws IOException {
+        buffer.reset();
+        writer.writeValue(buffer, responsesWithHistory);
+        return buffer.size();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.book_borrowing_system.controller;
+
+import com.example.book_borrowing_system.BookBorrowingSystemApplication;
+import com.example.book_borrowing_system.dto.CursorPage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares request handling on platform and virtual threads over HTTP. Every invocation is one wave of
+ * {@code clients} concurrent clients, each issuing its request at once and waiting for the response, so the
+ * score is the time the server needs to drain that many simultaneous requests. The borrow/return workload
+ * gives every client its own book so clients never contend for the same row.
+ * <p>
+ * Clients and server share this JVM, so a wave holds two sockets per client: 10000 clients need an open-file
+ * limit ({@code ulimit -n}) well above 20000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    private static final int INSERT_CHUNK = 1000;
+    private static final int PAGE_SIZE = 50;
+    private static final int CATALOG_SIZE = 20_000;
+    private static final int RAMP_CLIENTS = 20;
+    private static final int RAMP_WAVES = 250;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"1000", "10000"})
+    private int clients;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private int wave;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        boolean virtual = threads.equals("virtual");
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21, running on " + Runtime.version());
+        }
+
+        context = new SpringApplicationBuilder(BookBorrowingSystemApplication.class)
+                // Passed as arguments so they take precedence over application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:threads;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--server.port=0",
+                        "--server.tomcat.max-connections=" + (clients * 2),
+                        // Every client must be served for the wave to count, not shed by admission control
+                        "--library.admission.enabled=false",
+                        "--logging.level.root=WARN");
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        insertCatalog(context.getBean(JdbcTemplate.class), Math.max(clients, CATALOG_SIZE));
+
+        // The clients themselves never block: requests are sent asynchronously and completed on a small pool
+        clientExecutor = Executors.newFixedThreadPool(4);
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(clientExecutor)
+                .build();
+        rampUp();
+    }
+
+    // Compiles the request path at low concurrency first, so the first full wave does not time out on a cold JVM
+    private void rampUp() {
+        int measuredClients = clients;
+        clients = RAMP_CLIENTS;
+        for (int i = 0; i < RAMP_WAVES; i++) {
+            borrowThenReturn();
+            listBooks();
+        }
+        clients = measuredClients;
+    }
+
+    private static void insertCatalog(JdbcTemplate jdbcTemplate, int books) {
+        jdbcTemplate.update("INSERT INTO borrower (id, name, email) VALUES (1, 'Benchmark Reader', 'reader@example.com')");
+        List<Object[]> rows = new ArrayList<>(INSERT_CHUNK);
+        for (int i = 1; i <= books; i++) {
+            rows.add(new Object[]{i, String.format("THR-%09d", i), "Benchmark Title " + i, "Benchmark Author", true});
+            if (rows.size() == INSERT_CHUNK || i == books) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO book (id, isbn, title, author, is_available) VALUES (?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+        clientExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int borrowThenReturn() {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(clients);
+        for (int client = 1; client <= clients; client++) {
+            String book = baseUrl + "/api/books/" + client;
+            responses.add(send(post(book + "/borrow"))
+                    .thenCompose(borrowed -> borrowed.statusCode() == 200
+                            ? send(post(book + "/return"))
+                            : CompletableFuture.completedFuture(borrowed)));
+        }
+        return awaitAll(responses);
+    }
+
+    @Benchmark
+    public int listBooks() {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(clients);
+        int pages = CATALOG_SIZE / PAGE_SIZE;
+        for (int client = 0; client < clients; client++) {
+            long afterId = (long) ((wave + client) % pages) * PAGE_SIZE;
+            responses.add(send(HttpRequest.newBuilder(URI.create(
+                    baseUrl + "/api/books?size=" + PAGE_SIZE + "&cursor=" + CursorPage.encode(afterId))).build()));
+        }
+        wave++;
+        return awaitAll(responses);
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpRequest post(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"borrowerId\": 1}"))
+                .build();
+    }
+
+    // Waits for the whole wave; a failed request invalidates the measurement rather than making it look faster
+    private static int awaitAll(List<CompletableFuture<HttpResponse<String>>> responses) {
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0])).join();
+        int failed = 0;
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            if (response.join().statusCode() != 200) {
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            throw new IllegalStateException(failed + " of " + responses.size() + " requests failed");
+        }
+        return responses.size();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.book_borrowing_system.service;
+
+import com.example.book_borrowing_system.BookBorrowingSystemApplication;
+import com.example.book_borrowing_system.model.Book;
+import com.example.book_borrowing_system.model.BookBorrow;
+import com.example.book_borrowing_system.model.Borrower;
+import com.example.book_borrowing_system.repository.BookRepository;
+import com.example.book_borrowing_system.repository.BorrowerRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures BookService.borrowBook and returnBook end to end, including their transactions, against an
+ * embedded H2 database holding {@code datasetSize} books. Each invocation borrows the next book in turn
+ * and returns it again, so the borrow history grows with the run like it does in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class BorrowReturnBenchmark {
+
+    private static final int INSERT_CHUNK = 1000;
+
+    @Param({"1000", "50000"})
+    private int datasetSize;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private long borrowerId;
+    private long[] bookIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(BookBorrowingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                // Passed as arguments so they take precedence over application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:jmh;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--logging.level.root=WARN");
+        bookService = context.getBean(BookService.class);
+
+        Borrower borrower = new Borrower();
+        borrower.setName("Benchmark Reader");
+        borrower.setEmail("benchmark.reader@example.com");
+        borrowerId = context.getBean(BorrowerRepository.class).save(borrower).getId();
+        bookIds = insertBooks(datasetSize);
+    }
+
+    private long[] insertBooks(int count) {
+        BookRepository bookRepository = context.getBean(BookRepository.class);
+        EntityManager entityManager = context.getBean(EntityManager.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        long[] ids = new long[count];
+        for (int start = 0; start < count; start += INSERT_CHUNK) {
+            int from = start;
+            int to = Math.min(start + INSERT_CHUNK, count);
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Book> books = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    Book book = new Book();
+                    book.setIsbn(String.format("JMH-%09d", i));
+                    book.setTitle("Benchmark Title " + i);
+                    book.setAuthor("Benchmark Author");
+                    book.setAvailable(true);
+                    books.add(book);
+                }
+                bookRepository.saveAll(books);
+                entityManager.flush();
+                for (int i = from; i < to; i++) {
+                    ids[i] = books.get(i - from).getId();
+                }
+                entityManager.clear();
+            });
+        }
+        return ids;
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookBorrow borrowThenReturn() {
+        long bookId = bookIds[next];
+        next = (next + 1) % bookIds.length;
+        bookService.borrowBook(borrowerId, bookId);
+        return bookService.returnBook(borrowerId, bookId);
+    }
+}
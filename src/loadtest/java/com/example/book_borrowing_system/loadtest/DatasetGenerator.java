@@ -0,0 +1,96 @@
+package com.example.book_borrowing_system.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the database with a synthetic library using batched JDBC inserts.
+ * Books and borrowers get explicit IDs and the ID sequences are moved past them afterwards, so rows created
+ * through the API during the run do not collide. All generated loans are returned, which leaves every book
+ * available when the workload starts.
+ */
+class DatasetGenerator {
+
+    private static final int BATCH_SIZE = 5_000;
+    // Leaves room for the ID block Hibernate's pooled optimizer reserves below the sequence value
+    private static final int SEQUENCE_GAP = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadTestOptions options;
+    private final Random random;
+
+    DatasetGenerator(JdbcTemplate jdbcTemplate, LoadTestOptions options) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.options = options;
+        this.random = new Random(options.seed);
+    }
+
+    static String isbn(int index) {
+        return String.format("LT-%09d", index);
+    }
+
+    static String email(int index) {
+        return "reader" + index + "@loadtest.example.com";
+    }
+
+    void generate() {
+        long started = System.nanoTime();
+        insertBorrowers();
+        insertBooks();
+        insertLoans();
+        jdbcTemplate.execute("ALTER SEQUENCE borrower_seq RESTART WITH " + (options.borrowers + SEQUENCE_GAP));
+        jdbcTemplate.execute("ALTER SEQUENCE book_seq RESTART WITH " + (options.books + SEQUENCE_GAP));
+        System.out.printf("Generated %,d books (%,d ISBNs), %,d borrowers and %,d loans in %.1f s%n",
+                options.books, options.isbns(), options.borrowers, options.loans,
+                (System.nanoTime() - started) / 1e9);
+    }
+
+    private void insertBorrowers() {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= options.borrowers; i++) {
+            rows.add(new Object[]{(long) i, "Load Test Reader " + i, email(i)});
+            if (rows.size() == BATCH_SIZE || i == options.borrowers) {
+                jdbcTemplate.batchUpdate("INSERT INTO borrower (id, name, email) VALUES (?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    private void insertBooks() {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= options.books; i++) {
+            int isbn = (i - 1) % options.isbns();
+            rows.add(new Object[]{(long) i, isbn(isbn), "Load Test Title " + isbn, "Author " + isbn % 5_000, true});
+            if (rows.size() == BATCH_SIZE || i == options.books) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO book (id, isbn, title, author, is_available) VALUES (?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    private void insertLoans() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= options.loans; i++) {
+            LocalDateTime borrowDate = now.minusMinutes(random.nextInt(365 * 24 * 60) + 30 * 24 * 60);
+            LocalDateTime returnDate = borrowDate.plusHours(random.nextInt(21 * 24) + 1);
+            rows.add(new Object[]{
+                    (long) random.nextInt(options.borrowers) + 1,
+                    (long) random.nextInt(options.books) + 1,
+                    Timestamp.valueOf(borrowDate),
+                    Timestamp.valueOf(returnDate)});
+            if (rows.size() == BATCH_SIZE || i == options.loans) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO book_borrow (borrower_id, book_id, borrow_date, return_date) VALUES (?, ?, ?, ?)",
+                        rows);
+                rows.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.book_borrowing_system.loadtest;
+
+import com.example.book_borrowing_system.dto.CursorPage;
+import com.example.book_borrowing_system.metrics.LatencyHistogram;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the mixed workload with an open-loop arrival rate: requests are issued on a fixed schedule whether or
+ * not earlier ones have completed, and latency is measured from the scheduled send time, so a slow server
+ * shows up as queueing delay instead of silently lowering the offered load.
+ */
+class LoadDriver {
+
+    private static final int PAGE_SIZE = 50;
+
+    private final String baseUrl;
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final ExecutorService httpExecutor = Executors.newFixedThreadPool(32);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SplittableRandom random;
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    // Books borrowed during the run, as {bookId, borrowerId}, so returns target real loans
+    private final Queue<long[]> activeLoans = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+
+    LoadDriver(String baseUrl, LoadTestOptions options) {
+        this.baseUrl = baseUrl;
+        this.options = options;
+        this.random = new SplittableRandom(options.seed);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(httpExecutor)
+                .build();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    void run() throws InterruptedException {
+        Operation[] operations = options.mix.keySet().toArray(new Operation[0]);
+        int[] cumulativeWeights = new int[operations.length];
+        int totalWeight = 0;
+        for (int i = 0; i < operations.length; i++) {
+            totalWeight += options.mix.get(operations[i]);
+            cumulativeWeights[i] = totalWeight;
+        }
+
+        long intervalNanos = (long) (1e9 / options.rate);
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+        System.out.printf("Offering %.0f requests/s for %d s after a %d s warmup%n",
+                options.rate, options.duration.toSeconds(), options.warmup.toSeconds());
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            boolean measured = scheduled >= measureFrom;
+            if (outstanding.get() >= options.maxOutstanding) {
+                // The server has fallen too far behind; count the request instead of queueing without bound
+                if (measured) {
+                    dropped.increment();
+                }
+                continue;
+            }
+            int pick = random.nextInt(totalWeight);
+            int index = 0;
+            while (cumulativeWeights[index] <= pick) {
+                index++;
+            }
+            send(operations[index], scheduled, measured);
+        }
+
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        httpExecutor.shutdownNow();
+    }
+
+    private void send(Operation operation, long scheduled, boolean measured) {
+        long[] loan = null;
+        if (operation == Operation.RETURN) {
+            loan = activeLoans.poll();
+            if (loan == null) {
+                // Nothing to return yet; borrow instead so the mix keeps its write share
+                operation = Operation.BORROW;
+            }
+        }
+
+        HttpRequest request = switch (operation) {
+            case LOOKUP -> get("/api/books?isbn=" + randomIsbn());
+            case LIST_BOOKS -> get("/api/books?size=" + PAGE_SIZE
+                    + "&cursor=" + CursorPage.encode(random.nextInt(options.books)));
+            case LIST_BORROWERS -> get("/api/borrowers?size=" + PAGE_SIZE
+                    + "&cursor=" + CursorPage.encode(random.nextInt(options.borrowers)));
+            case BORROW -> post("/api/books/isbn/" + randomIsbn() + "/borrow", random.nextInt(options.borrowers) + 1);
+            case RETURN -> post("/api/books/" + loan[0] + "/return", loan[1]);
+        };
+
+        Operation sent = operation;
+        outstanding.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+            outstanding.decrementAndGet();
+            int status = failure == null ? response.statusCode() : 0;
+            if (sent == Operation.BORROW && status == 200) {
+                rememberLoan(response.body());
+            }
+            if (measured) {
+                stats.get(sent).record(System.nanoTime() - scheduled, status);
+            }
+        });
+    }
+
+    private void rememberLoan(String body) {
+        try {
+            JsonNode borrow = objectMapper.readTree(body);
+            activeLoans.add(new long[]{borrow.get("bookId").asLong(), borrow.get("borrowerId").asLong()});
+        } catch (Exception e) {
+            // An unparseable body only means this copy is not returned during the run
+        }
+    }
+
+    private String randomIsbn() {
+        return DatasetGenerator.isbn(random.nextInt(options.isbns()));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, long borrowerId) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"borrowerId\": " + borrowerId + "}"))
+                .build();
+    }
+
+    void report(PrintStream out) {
+        double seconds = options.duration.toNanos() / 1e9;
+        out.printf("%n%-38s %9s %9s %8s %8s %9s %9s %9s %9s %9s%n", "Endpoint", "Requests", "Req/s",
+                "4xx", "Failed", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms");
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            Stats s = stats.get(operation);
+            long count = s.latency.getCount();
+            if (count == 0) {
+                continue;
+            }
+            total += count;
+            out.printf("%-38s %9d %9.1f %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n", operation.endpoint, count,
+                    count / seconds, s.clientErrors.sum(), s.failures.sum(),
+                    millis(s.latency.quantileMicros(0.5)), millis(s.latency.quantileMicros(0.9)),
+                    millis(s.latency.quantileMicros(0.99)), millis(s.latency.quantileMicros(0.999)),
+                    millis(s.latency.getMaxMicros()));
+        }
+        out.printf("%nCompleted %,d requests, %.1f requests/s; %,d dropped because more than %,d were outstanding%n",
+                total, total / seconds, dropped.sum(), options.maxOutstanding);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    private static class Stats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private void record(long nanos, int status) {
+            latency.record(nanos);
+            if (status >= 400 && status < 500) {
+                clientErrors.increment();
+            } else if (status < 200 || status >= 500) {
+                failures.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.book_borrowing_system.loadtest;
+
+import com.example.book_borrowing_system.BookBorrowingSystemApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * End-to-end load test: starts the application on a free port, fills its database with a synthetic library
+ * and drives a mixed workload through the real HTTP endpoints, then prints throughput and latency percentiles
+ * per endpoint. Run with {@code ./gradlew loadTest -PloadTestArgs="--books=100000 --rate=500"}.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        // An embedded database by default; --spring.datasource.* options point the run at an empty local one
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.datasource.hikari.maximum-pool-size", "20");
+        properties.put("server.port", "0");
+        properties.put("logging.level.root", "WARN");
+        properties.putAll(options.applicationProperties);
+        String[] applicationArgs = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+
+        try (ConfigurableApplicationContext context =
+                     new SpringApplicationBuilder(BookBorrowingSystemApplication.class).run(applicationArgs)) {
+            new DatasetGenerator(context.getBean(JdbcTemplate.class), options).generate();
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadDriver driver = new LoadDriver("http://localhost:" + port, options);
+            driver.run();
+            driver.report(System.out);
+        }
+        System.exit(0);
+    }
+}
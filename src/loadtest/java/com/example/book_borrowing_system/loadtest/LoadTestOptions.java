@@ -0,0 +1,74 @@
+package com.example.book_borrowing_system.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Options of a load-test run, parsed from {@code --name=value} arguments.
+ * Arguments starting with {@code --spring.}, {@code --server.} or {@code --library.} are passed to the application under test,
+ * which for example allows pointing it at a local PostgreSQL instead of the embedded H2 database.
+ */
+class LoadTestOptions {
+
+    int books = 100_000;
+    int copiesPerIsbn = 3;
+    int borrowers = 10_000;
+    int loans = 200_000;
+    long seed = 42;
+    double rate = 200;
+    Duration warmup = Duration.ofSeconds(10);
+    Duration duration = Duration.ofSeconds(60);
+    int maxOutstanding = 2_000;
+    Map<Operation, Integer> mix = new EnumMap<>(Map.of(
+            Operation.LOOKUP, 40,
+            Operation.LIST_BOOKS, 15,
+            Operation.LIST_BORROWERS, 5,
+            Operation.BORROW, 20,
+            Operation.RETURN, 20));
+    final Map<String, String> applicationProperties = new LinkedHashMap<>();
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (name.startsWith("spring.") || name.startsWith("server.") || name.startsWith("library.")) {
+                options.applicationProperties.put(name, value);
+                continue;
+            }
+            switch (name) {
+                case "books" -> options.books = Integer.parseInt(value);
+                case "copies-per-isbn" -> options.copiesPerIsbn = Integer.parseInt(value);
+                case "borrowers" -> options.borrowers = Integer.parseInt(value);
+                case "loans" -> options.loans = Integer.parseInt(value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "rate" -> options.rate = Double.parseDouble(value);
+                case "warmup" -> options.warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "duration" -> options.duration = Duration.ofSeconds(Long.parseLong(value));
+                case "max-outstanding" -> options.maxOutstanding = Integer.parseInt(value);
+                case "mix" -> options.mix = parseMix(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        return options;
+    }
+
+    // Parses weights such as "lookup:40,list-books:15,borrow:20,return:20"
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            mix.put(Operation.fromName(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+
+    int isbns() {
+        return Math.max(1, books / copiesPerIsbn);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.book_borrowing_system.loadtest;
+
+/**
+ * Request types of the mixed workload.
+ */
+enum Operation {
+    LOOKUP("GET /api/books?isbn={isbn}"),
+    LIST_BOOKS("GET /api/books?cursor={cursor}"),
+    LIST_BORROWERS("GET /api/borrowers?cursor={cursor}"),
+    BORROW("POST /api/books/isbn/{isbn}/borrow"),
+    RETURN("POST /api/books/{bookId}/return");
+
+    final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    static Operation fromName(String name) {
+        return valueOf(name.toUpperCase().replace('-', '_'));
+    }
+}
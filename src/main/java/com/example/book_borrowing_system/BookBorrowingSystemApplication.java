@@ -2,8 +2,10 @@ package com.example.book_borrowing_system;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BookBorrowingSystemApplication {
 
 	public static void main(String[] args) {
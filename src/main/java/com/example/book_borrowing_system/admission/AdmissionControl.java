@@ -0,0 +1,176 @@
+package com.example.book_borrowing_system.admission;
+
+import com.example.book_borrowing_system.config.AdmissionProperties;
+import com.example.book_borrowing_system.dto.AdmissionStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limits for write routes, so a burst of writes cannot take every database connection.
+ * <p>
+ * Each route admits up to its limit of concurrent requests, and all routes together up to a total that leaves
+ * connections for reads. Requests beyond the limit wait in a bounded FIFO queue per route; a full queue rejects
+ * at once with 429 and a wait past the timeout with 503. The limit adapts to observed latency: a completion
+ * slower than the target, or a server error, shrinks it multiplicatively (at most once per target interval),
+ * and fast completions while the route is saturated grow it additively.
+ * <p>
+ * Writes are few and short compared to their database work, so one lock guards all routes.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionControl {
+
+    private final AdmissionProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Route> routes = new TreeMap<>();
+    private int totalInFlight;
+
+    /**
+     * Admits a request to a route, waiting for a slot if the route or the total is at its limit.
+     * @param route the route template
+     * @return the permit to release when the request completes
+     * @throws AdmissionRejectedException if the queue is full, the wait timed out or the thread was interrupted
+     */
+    public Permit acquire(String route) {
+        lock.lock();
+        try {
+            Route state = routes.computeIfAbsent(route, name -> new Route(name, lock.newCondition()));
+            if (state.waiting == 0 && canAdmit(state)) {
+                return admit(state);
+            }
+            if (state.waiting >= properties.getMaxQueueSize()) {
+                state.rejected++;
+                throw new AdmissionRejectedException(HttpStatus.TOO_MANY_REQUESTS,
+                        "Too many concurrent requests for " + route);
+            }
+            state.waiting++;
+            try {
+                long remaining = properties.getMaxQueueWait().toNanos();
+                while (!canAdmit(state)) {
+                    if (remaining <= 0) {
+                        state.timedOut++;
+                        throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+                                "Timed out waiting to process " + route);
+                    }
+                    remaining = state.available.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                state.timedOut++;
+                throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Interrupted waiting to process " + route);
+            } finally {
+                state.waiting--;
+            }
+            return admit(state);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a permit and adapts the route's limit to how the request went.
+     * @param permit the permit returned by {@link #acquire(String)}
+     * @param nanos the time the request took after it was admitted
+     * @param overloaded whether the request failed with a server error
+     */
+    public void release(Permit permit, long nanos, boolean overloaded) {
+        lock.lock();
+        try {
+            Route state = permit.route;
+            boolean saturated = state.inFlight >= state.currentLimit() || state.waiting > 0;
+            state.inFlight--;
+            totalInFlight--;
+
+            long now = System.nanoTime();
+            long targetNanos = properties.getTargetLatency().toNanos();
+            if (overloaded || nanos > targetNanos) {
+                if (now - state.lastDecreaseNanos >= targetNanos) {
+                    state.limit = Math.max(properties.getMinLimit(), state.limit * properties.getBackoffRatio());
+                    state.lastDecreaseNanos = now;
+                }
+            } else if (saturated) {
+                state.limit = Math.min(properties.getMaxLimit(), state.limit + 1.0 / state.currentLimit());
+            }
+
+            // A slot freed on this route or in the total may admit waiters of any route
+            for (Route route : routes.values()) {
+                if (route.waiting > 0 && canAdmit(route)) {
+                    route.available.signal();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reports the limit, load and rejections of every route seen so far.
+     * @return the admission statistics
+     */
+    public AdmissionStats snapshot() {
+        lock.lock();
+        try {
+            List<AdmissionStats.RouteStats> stats = new ArrayList<>(routes.size());
+            for (Route route : routes.values()) {
+                stats.add(new AdmissionStats.RouteStats(route.name, route.currentLimit(), route.inFlight,
+                        route.waiting, route.admitted, route.rejected, route.timedOut));
+            }
+            return new AdmissionStats(properties.getMaxTotalInFlight(), totalInFlight, stats);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canAdmit(Route route) {
+        return route.inFlight < route.currentLimit() && totalInFlight < properties.getMaxTotalInFlight();
+    }
+
+    private Permit admit(Route route) {
+        route.inFlight++;
+        route.admitted++;
+        totalInFlight++;
+        return new Permit(route);
+    }
+
+    /**
+     * A slot held by an admitted request.
+     */
+    public static final class Permit {
+        private final Route route;
+
+        private Permit(Route route) {
+            this.route = route;
+        }
+    }
+
+    private final class Route {
+        private final String name;
+        private final Condition available;
+        private double limit = properties.getInitialLimit();
+        private long lastDecreaseNanos = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+        private int inFlight;
+        private int waiting;
+        private long admitted;
+        private long rejected;
+        private long timedOut;
+
+        private Route(String name, Condition available) {
+            this.name = name;
+            this.available = available;
+        }
+
+        private int currentLimit() {
+            return (int) limit;
+        }
+    }
+}
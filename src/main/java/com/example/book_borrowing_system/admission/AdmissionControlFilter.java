@@ -0,0 +1,104 @@
+package com.example.book_borrowing_system.admission;
+
+import com.example.book_borrowing_system.config.AdmissionProperties;
+import com.example.book_borrowing_system.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Puts the book and borrower write endpoints behind {@link AdmissionControl}, so a burst of writes is queued or
+ * shed before it reaches the connection pool while reads pass straight through. Runs before the other filters
+ * so that shed requests never touch the database, not even to look up an idempotency key.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    // More specific patterns first: the first match names the route
+    private static final List<String> WRITE_ROUTES = List.of(
+            "/api/books",
+            "/api/books/bulk",
+            "/api/books/batch/borrow",
+            "/api/books/batch/return",
+            "/api/books/isbn/{isbn}/borrow",
+            "/api/books/{bookId}/borrow",
+            "/api/books/{bookId}/return",
+            "/api/borrowers",
+            "/api/borrowers/import");
+
+    private final AdmissionControl admissionControl;
+    private final AdmissionProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !HttpMethod.POST.matches(request.getMethod()) || routeOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String route = request.getMethod() + " " + routeOf(request);
+        AdmissionControl.Permit permit;
+        try {
+            permit = admissionControl.acquire(route);
+        } catch (AdmissionRejectedException e) {
+            reject(request, response, e);
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean overloaded = true;
+        try {
+            chain.doFilter(request, response);
+            overloaded = response.getStatus() >= 500;
+        } finally {
+            admissionControl.release(permit, System.nanoTime() - started, overloaded);
+        }
+    }
+
+    private String routeOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String route : WRITE_ROUTES) {
+            if (pathMatcher.match(route, path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, AdmissionRejectedException e)
+            throws IOException {
+        ErrorResponse errorResponse = ErrorResponse.of(
+                LocalDateTime.now(),
+                e.getStatus().value(),
+                e.getStatus().getReasonPhrase(),
+                e.getMessage(),
+                null,
+                "uri=" + request.getRequestURI()
+        );
+        long retryAfterMillis = properties.getRetryAfter().toMillis();
+        response.setStatus(e.getStatus().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfterMillis + 999) / 1000)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.book_borrowing_system.admission;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a write request is shed instead of admitted.
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public AdmissionRejectedException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+}
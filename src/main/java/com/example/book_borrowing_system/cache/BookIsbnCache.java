@@ -0,0 +1,131 @@
+package com.example.book_borrowing_system.cache;
+
+import com.example.book_borrowing_system.config.IsbnCacheProperties;
+import com.example.book_borrowing_system.dto.CacheStats;
+import com.example.book_borrowing_system.model.Book;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache of ISBN lookups, evicted by size and time.
+ * Entries are detached snapshots; callers always receive a copy.
+ * Writers evict the affected ISBN immediately and again after their transaction completes, and every eviction
+ * bumps a stamp so a lookup that read the database before a write committed never stores its stale result.
+ */
+@Component
+public class BookIsbnCache {
+
+    private final Cache<String, Book> cache;
+    // Reverse index so borrow and return can evict by book ID without loading the book
+    private final Map<Long, String> isbnByBookId = new ConcurrentHashMap<>();
+    private final AtomicLong stamp = new AtomicLong();
+
+    public BookIsbnCache(IsbnCacheProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .executor(Runnable::run)
+                .removalListener((String isbn, Book book, RemovalCause cause) -> {
+                    // A replaced entry's mapping has already been overwritten by the new value
+                    if (book != null && cause != RemovalCause.REPLACED) {
+                        isbnByBookId.remove(book.getId(), isbn);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the book cached for the ISBN, loading and caching it on a miss.
+     * @param isbn the ISBN to look up
+     * @param loader loads the book from the database; exceptions propagate and nothing is cached
+     * @return a copy of the cached book
+     */
+    public Book get(String isbn, Supplier<Book> loader) {
+        Book cached = cache.getIfPresent(isbn);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+
+        long loadStamp = stamp.get();
+        Book loaded = copyOf(loader.get());
+        // Only store the result if no eviction happened while it was being read
+        cache.asMap().compute(isbn, (key, current) -> {
+            if (stamp.get() != loadStamp) {
+                return current;
+            }
+            isbnByBookId.put(loaded.getId(), isbn);
+            return loaded;
+        });
+        return copyOf(loaded);
+    }
+
+    /**
+     * Evicts the entry of an ISBN, now and once the current transaction completes.
+     * @param isbn the ISBN whose lookup changed
+     */
+    public void evictIsbn(String isbn) {
+        evict(() -> invalidate(isbn));
+    }
+
+    /**
+     * Evicts the entry holding the given book, if any, now and once the current transaction completes.
+     * @param bookId the ID of the book whose state changed
+     */
+    public void evictBook(Long bookId) {
+        evict(() -> {
+            String isbn = isbnByBookId.get(bookId);
+            if (isbn != null) {
+                invalidate(isbn);
+            }
+        });
+    }
+
+    /**
+     * Returns hit, miss and eviction counters of the cache.
+     * @return the cache statistics
+     */
+    public CacheStats stats() {
+        com.github.benmanes.caffeine.cache.stats.CacheStats stats = cache.stats();
+        return new CacheStats(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
+
+    private void evict(Runnable eviction) {
+        stamp.incrementAndGet();
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    stamp.incrementAndGet();
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private void invalidate(String isbn) {
+        // Runs under the same per-key lock as the guarded store in get()
+        cache.asMap().compute(isbn, (key, current) -> null);
+    }
+
+    private static Book copyOf(Book book) {
+        Book copy = new Book();
+        copy.setId(book.getId());
+        copy.setIsbn(book.getIsbn());
+        copy.setTitle(book.getTitle());
+        copy.setAuthor(book.getAuthor());
+        copy.setAvailable(book.isAvailable());
+        return copy;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.book_borrowing_system.cache;
+
+import com.example.book_borrowing_system.config.CatalogVersionProperties;
+import com.example.book_borrowing_system.model.CatalogVersion;
+import com.example.book_borrowing_system.repository.CatalogVersionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Versions of the book and borrower catalogs, used as ETag and Last-Modified validators.
+ * <p>
+ * Versions live in the {@code catalog_version} table, so every instance hands out and accepts the same
+ * validators. A write bumps its catalog once its transaction commits, in a short transaction of its own, so
+ * writers never wait on the version row while they hold other locks. Validators are read before the response
+ * is, so a reader that raced a write pairs the old version with old or new data and at worst rebuilds a
+ * response it could have skipped; it never pairs the new version with old data. A crash between a commit and
+ * its bump leaves the version unchanged until the next write to that catalog.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogVersions {
+
+    public enum Catalog {
+        BOOKS, BORROWERS
+    }
+
+    private static final String PENDING_BUMPS = CatalogVersions.class.getName() + ".PENDING_BUMPS";
+
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final CatalogVersionProperties properties;
+
+    /**
+     * Creates the version rows that do not exist yet.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void initialize() {
+        for (Catalog catalog : Catalog.values()) {
+            if (catalogVersionRepository.existsById(catalog.name())) {
+                continue;
+            }
+            CatalogVersion version = new CatalogVersion();
+            version.setCatalog(catalog.name());
+            version.setChangedAt(System.currentTimeMillis());
+            try {
+                catalogVersionRepository.save(version);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created it concurrently
+            }
+        }
+    }
+
+    /**
+     * Records a change to a catalog, bumping its version once the current transaction commits, or right away
+     * outside a transaction. A catalog changed several times in one transaction is bumped once.
+     * @param catalog the catalog that changed
+     */
+    public void changed(Catalog catalog) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(catalog);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Catalog> pending = (Set<Catalog>) TransactionSynchronizationManager.getResource(PENDING_BUMPS);
+        if (pending == null) {
+            Set<Catalog> catalogs = EnumSet.noneOf(Catalog.class);
+            TransactionSynchronizationManager.bindResource(PENDING_BUMPS, catalogs);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    catalogs.forEach(CatalogVersions.this::bump);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_BUMPS);
+                }
+            });
+            pending = catalogs;
+        }
+        pending.add(catalog);
+    }
+
+    /**
+     * Evaluates If-None-Match and If-Modified-Since against a catalog and sets the ETag and Last-Modified
+     * headers on the response. Reads the catalog's version row and nothing else.
+     * @param request the current request
+     * @param catalog the catalog the response is built from
+     * @return true if the client's copy is current and a 304 has been prepared, false to build the response
+     */
+    public boolean checkNotModified(WebRequest request, Catalog catalog) {
+        CatalogVersion version = read(catalog);
+        long lastModified = catalog == Catalog.BOOKS
+                ? Math.max(version.getChangedAt(), overdueWindowStart())
+                : version.getChangedAt();
+        return request.checkNotModified(etag(catalog, version), lastModified);
+    }
+
+    // Strong and the same on every instance; book tags also roll over with the overdue window
+    private String etag(Catalog catalog, CatalogVersion version) {
+        StringBuilder etag = new StringBuilder("\"").append(catalog.name().toLowerCase())
+                .append('-').append(version.getVersion());
+        if (catalog == Catalog.BOOKS) {
+            etag.append('-').append(Long.toString(overdueWindowStart(), 36));
+        }
+        return etag.append('"').toString();
+    }
+
+    private CatalogVersion read(Catalog catalog) {
+        return catalogVersionRepository.findById(catalog.name())
+                .orElseThrow(() -> new IllegalStateException("No version row for catalog " + catalog));
+    }
+
+    // The write has committed already, so a failed bump is logged rather than failing the request
+    private void bump(Catalog catalog) {
+        try {
+            catalogVersionRepository.bump(catalog.name(), System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.warn("Could not bump the {} catalog version", catalog, e);
+        }
+    }
+
+    private long overdueWindowStart() {
+        long interval = properties.getOverdueRefreshInterval().toMillis();
+        long now = System.currentTimeMillis();
+        return now - now % interval;
+    }
+}
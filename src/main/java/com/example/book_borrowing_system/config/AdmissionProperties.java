@@ -0,0 +1,32 @@
+package com.example.book_borrowing_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Concurrency limits of the book and borrower write endpoints.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "library.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    // Concurrent requests per write route; the limit adapts between min-limit and max-limit
+    private int initialLimit = 4;
+    private int minLimit = 1;
+    private int maxLimit = 10;
+    // Concurrent writes over all routes; kept below the connection pool size so reads always find a connection
+    private int maxTotalInFlight = 15;
+    // Requests per route waiting for a slot; more are rejected with 429 at once
+    private int maxQueueSize = 50;
+    // Longest wait for a slot before a request is rejected with 503; below the connection timeout
+    private Duration maxQueueWait = Duration.ofSeconds(2);
+    // Completions slower than this shrink the route's limit, faster ones at the limit grow it
+    private Duration targetLatency = Duration.ofMillis(250);
+    private double backoffRatio = 0.9;
+    // Sent to rejected clients as Retry-After, rounded up to whole seconds
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
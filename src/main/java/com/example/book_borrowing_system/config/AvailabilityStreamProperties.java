@@ -0,0 +1,25 @@
+package com.example.book_borrowing_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the server-sent availability event stream.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "library.availability")
+public class AvailabilityStreamProperties {
+    // Streams are closed after this long; EventSource clients reconnect on their own
+    private Duration streamTimeout = Duration.ofMinutes(30);
+    // Idle streams receive a comment at this interval so proxies keep them open and dead clients are noticed
+    private Duration heartbeatInterval = Duration.ofSeconds(30);
+    // Events buffered for a subscriber that is still writing earlier ones; a subscriber falling further
+    // behind is disconnected rather than buffered without bound
+    private int maxPendingEvents = 32;
+    // Committed changes waiting to be matched to subscribers; changes beyond this are dropped
+    private int maxQueuedChanges = 10000;
+}
@@ -0,0 +1,18 @@
+package com.example.book_borrowing_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits for the bulk registration endpoints.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "library.bulk")
+public class BulkProperties {
+    // Maximum number of items accepted in a single request
+    private int maxItems = 10000;
+    // Number of items checked and inserted per transaction
+    private int chunkSize = 1000;
+}
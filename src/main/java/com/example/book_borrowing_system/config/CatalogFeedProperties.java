@@ -0,0 +1,19 @@
+package com.example.book_borrowing_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Read settings of the catalog change feed.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "library.catalog.feed")
+public class CatalogFeedProperties {
+    // Changes are served only once their sequence number is this old, so a writer that took a lower number
+    // has committed by then; must exceed the time from taking a number to commit and the clock skew between nodes
+    private Duration settleTime = Duration.ofSeconds(2);
+}
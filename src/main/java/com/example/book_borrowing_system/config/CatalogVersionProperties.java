@@ -0,0 +1,19 @@
+package com.example.book_borrowing_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Validator settings of the conditional GET support on the catalog endpoints.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "library.catalog")
+public class CatalogVersionProperties {
+    // Book responses carry an overdue flag that changes with time alone, so their validators also change
+    // at this interval; it bounds how long a 304 can keep a stale flag alive
+    private Duration overdueRefreshInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,22 @@
+package com.example.book_borrowing_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the hold queue.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "library.hold")
+public class HoldProperties {
+    // How long a copy handed to a hold is kept for pickup before it passes to the next holder
+    private Duration pickupWindow = Duration.ofDays(3);
+    // How often holds whose pickup window has passed are released
+    private Duration expiryCheckInterval = Duration.ofMinutes(1);
+    // Expired holds released per check; the rest wait for the next one
+    private int expiryBatchSize = 100;
+}
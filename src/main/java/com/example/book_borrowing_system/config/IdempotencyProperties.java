@@ -0,0 +1,26 @@
+package com.example.book_borrowing_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounds of the Idempotency-Key store.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "library.idempotency")
+public class IdempotencyProperties {
+    // How long a key is remembered; a retry after this is processed as a new request
+    private Duration ttl = Duration.ofHours(24);
+    // How long a claim without a response blocks retries; after this its request is presumed lost and a retry
+    // takes the key over, so it must be longer than any request can run
+    private Duration processingTimeout = Duration.ofSeconds(30);
+    // Completed responses kept in process in front of the table
+    private long memoryMaxSize = 10000;
+    private int maxKeyLength = 255;
+    // How often expired keys are deleted from the table
+    private Duration purgeInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,18 @@
+package com.example.book_borrowing_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounds of the in-process ISBN lookup cache.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "library.cache.isbn")
+public class IsbnCacheProperties {
+    private long maxSize = 10000;
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,20 @@
+package com.example.book_borrowing_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Period;
+
+/**
+ * Lending rules shared by borrow details, catalog listings and the overdue report.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "library.loan")
+public class LoanProperties {
+    // Time a borrower may keep a book before it counts as overdue
+    private Period period = Period.ofWeeks(2);
+    // Books a patron can borrow or return in one batch request
+    private int maxBatchSize = 50;
+}
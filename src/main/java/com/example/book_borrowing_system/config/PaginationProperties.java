@@ -0,0 +1,28 @@
+package com.example.book_borrowing_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Page size settings for the cursor-paginated listing endpoints.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "library.pagination")
+public class PaginationProperties {
+    private int defaultSize = 50;
+    private int maxSize = 500;
+
+    /**
+     * Resolves the requested page size, falling back to the default and capping at the maximum.
+     * @param requested the page size requested by the client, may be null
+     * @return the page size to use
+     */
+    public int resolveSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return defaultSize;
+        }
+        return Math.min(requested, maxSize);
+    }
+}
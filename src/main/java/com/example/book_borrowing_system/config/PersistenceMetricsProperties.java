@@ -0,0 +1,22 @@
+package com.example.book_borrowing_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Thresholds of the persistence instrumentation exposed at /api/metrics/persistence.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "library.metrics.persistence")
+public class PersistenceMetricsProperties {
+    // Statements running at least this long are recorded with their SQL, placeholders unbound
+    private Duration slowStatementThreshold = Duration.ofMillis(200);
+    // A request running the same statement this many times outside JDBC batches is flagged as a suspected N+1
+    private int nPlusOneThreshold = 5;
+    // Number of most recent slow statements and N+1 suspects kept in memory
+    private int maxRecordedEvents = 50;
+}
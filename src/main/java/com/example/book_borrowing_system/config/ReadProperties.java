@@ -0,0 +1,30 @@
+package com.example.book_borrowing_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the streaming read API under /api/read.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "library.read")
+public class ReadProperties {
+    // Rows read per query; a connection is only held while one chunk is read
+    private int chunkSize = 500;
+    // Rows streamed when the client does not ask for fewer
+    private long maxRows = 100000;
+
+    /**
+     * Resolves the number of rows to stream, falling back to and capping at the maximum.
+     * @param requested the row limit requested by the client, may be null
+     * @return the number of rows to stream
+     */
+    public long resolveLimit(Long requested) {
+        if (requested == null || requested <= 0) {
+            return maxRows;
+        }
+        return Math.min(requested, maxRows);
+    }
+}
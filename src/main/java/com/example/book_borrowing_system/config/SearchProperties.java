@@ -0,0 +1,20 @@
+package com.example.book_borrowing_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the in-process book search index.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "library.search")
+public class SearchProperties {
+    // Threads scanning the book table while the index is built at startup
+    private int buildThreads = 4;
+    // Number of book IDs covered by each scan task
+    private long buildRangeSize = 50000;
+    private int defaultLimit = 20;
+    private int maxLimit = 100;
+}
@@ -1,23 +1,50 @@
 package com.example.book_borrowing_system.controller;
 
+import com.example.book_borrowing_system.cache.CatalogVersions;
+import com.example.book_borrowing_system.config.PaginationProperties;
+import com.example.book_borrowing_system.config.SearchProperties;
 import com.example.book_borrowing_system.dto.*;
+import com.example.book_borrowing_system.feed.AvailabilityStream;
+import com.example.book_borrowing_system.feed.CatalogChangeFeed;
+import com.example.book_borrowing_system.metrics.LatencyMetrics;
 import com.example.book_borrowing_system.model.*;
-import com.example.book_borrowing_system.repository.BookBorrowRepository;
 import com.example.book_borrowing_system.service.*;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 
 @RestController
 @RequestMapping("/api/books")
 @RequiredArgsConstructor
 public class BookController {
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
     private final BookService bookService;
-    private final BookBorrowRepository bookBorrowRepository;
+    private final BookCatalogService bookCatalogService;
+    private final BookImportService bookImportService;
+    private final BatchLoanService batchLoanService;
+    private final PaginationProperties paginationProperties;
+    private final SearchProperties searchProperties;
+    private final ObjectMapper objectMapper;
+    private final LatencyMetrics latencyMetrics;
+    private final CatalogVersions catalogVersions;
+    private final CatalogChangeFeed catalogChangeFeed;
+    private final AvailabilityStream availabilityStream;
 
     /**
      * Registers a new book in the system.
@@ -29,87 +56,153 @@ public class BookController {
     @PostMapping
     public ResponseEntity<BookDto.Response> registerBook(
             @Valid @RequestBody BookDto.RegisterRequest request) {
-        Book book = bookService.registerBook(
+        Book book = latencyMetrics.time(LatencyMetrics.REGISTER_BOOK, () -> bookService.registerBook(
                 request.getIsbn(),
                 request.getTitle(),
                 request.getAuthor()
-        );
+        ));
         return ResponseEntity.ok(convertToResponse(book));
     }
 
+    /**
+     * Registers many books in one call.
+     * Each item follows the same rules as single registration; invalid or conflicting items are reported
+     * individually and do not prevent the other items from being registered.
+     *
+     * @param requests Book details for registration.
+     * @return The number of created and failed items and the outcome of each item.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BookDto.BulkRegisterResponse> registerBooks(
+            @RequestBody List<BookDto.RegisterRequest> requests) {
+        return ResponseEntity.ok(bookImportService.registerBooks(requests));
+    }
 
     /**
-     * Retrieves a list of books. Optionally, a book's ISBN can be provided to fetch a specific book.
+     * Retrieves a page of books ordered by ID. Optionally, a book's ISBN can be provided to fetch a specific book.
      * Also allows fetching borrow history for each book.
+     * The cursor of the next page is returned in the X-Next-Cursor header and is absent on the last page.
+     * Responses carry an ETag and Last-Modified of the book catalog; a request whose If-None-Match or
+     * If-Modified-Since still matches is answered with 304 before anything is read.
      *
      * @param isbn ISBN of the book to fetch (optional).
      * @param withBorrowHistory Flag indicating whether to include borrow history (optional, default is false).
+     * @param cursor Cursor returned with the previous page (optional).
+     * @param size Maximum number of books on the page (optional).
      * @return A list of books with or without borrow history.
      */
     @GetMapping
     public ResponseEntity<List<BookDto.Response>> getBooks(
             @RequestParam(required = false) String isbn,  // Optional bookId
-            @RequestParam(required = false, defaultValue = "false") boolean withBorrowHistory) {
+            @RequestParam(required = false, defaultValue = "false") boolean withBorrowHistory,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
 
-        List<BookDto.Response> response;
+        if (catalogVersions.checkNotModified(webRequest, CatalogVersions.Catalog.BOOKS)) {
+            return null;
+        }
 
         if (isbn != null) {
             // Check if a specific book isbn is provided, returns matching books
             Book book = bookService.getBookByIsbn(isbn);
-            response = List.of(convertToResponse(book, withBorrowHistory));
-        } else {
-            List<Book> books = bookService.getAllBooks();
-            response = books.stream()
-                    .map(book -> convertToResponse(book, withBorrowHistory))
-                    .collect(Collectors.toList());
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .body(bookCatalogService.toResponses(List.of(book), withBorrowHistory));
         }
 
-        return ResponseEntity.ok(response);
+        // Borrow details for the page are resolved with set-based queries
+        CursorPage<Book> page = bookService.getBooksPage(cursor, paginationProperties.resolveSize(size));
+        List<BookDto.Response> response = bookCatalogService.toResponses(page.getItems(), withBorrowHistory);
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (page.getNextCursor() != null) {
+            builder.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(response);
     }
 
     /**
-     * Converts a Book object into a response DTO.
-     * Optionally includes borrow history and overdue details.
+     * Lists the books that changed after a feed sequence number, so a client can keep a local copy of the
+     * catalog in sync without re-reading it. Each book appears once, with its latest change and current state.
      *
-     * @param book The Book object to convert.
-     * @param withBorrowHistory Flag indicating whether to include borrow history.
-     * @return The BookDto.Response containing book details and optional borrow history.
+     * @param since The nextSince value of the previous call; 0 (the default) returns every book.
+     * @param size Maximum number of changes (optional).
+     * @return The changes in sequence order and the sequence number to continue from.
      */
-    private BookDto.Response convertToResponse(Book book, boolean withBorrowHistory) {
-        BookDto.Response response = new BookDto.Response();
-        response.setId(book.getId());
-        response.setIsbn(book.getIsbn());
-        response.setTitle(book.getTitle());
-        response.setAuthor(book.getAuthor());
-        response.setAvailable(book.isAvailable());
+    @GetMapping("/changes")
+    public ResponseEntity<BookDto.ChangesResponse> getChanges(
+            @RequestParam(required = false, defaultValue = "0") long since,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(catalogChangeFeed.changesSince(since, paginationProperties.resolveSize(size)));
+    }
 
-        if (!book.isAvailable()) {
-            BookBorrowDto.Response borrowDetails = bookService.getBookBorrowDetails(book.getId());
-            response.setOverdue(borrowDetails.isOverdue());
-            response.setExpectedReturnDate(borrowDetails.getExpectedReturnDate());
-        }
+    /**
+     * Streams availability changes as server-sent events, one {@code availability} event per borrow or return,
+     * so clients waiting for a copy do not have to poll the listing.
+     *
+     * @param bookId Only stream changes of this copy (optional).
+     * @param isbn Only stream changes of copies with this ISBN (optional).
+     * @return An event stream of BookDto.AvailabilityChange; without a filter it carries every change.
+     */
+    @GetMapping(value = "/availability/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(
+            @RequestParam(required = false) Long bookId,
+            @RequestParam(required = false) String isbn) {
+        return availabilityStream.subscribe(bookId, isbn);
+    }
 
-        if (withBorrowHistory) {
-            // Add borrow history if requested
-            List<BookDto.BorrowHistoryResponse> borrowHistory = bookBorrowRepository
-                    .findByBookId(book.getId())
-                    .stream()
-                    .map(borrow -> {
-                        BookDto.BorrowHistoryResponse history = new BookDto.BorrowHistoryResponse();
-                        history.setBorrowId(borrow.getId());
-                        history.setBorrowerId(borrow.getBorrower().getId());
-                        history.setBorrowerName(borrow.getBorrower().getName());
-                        history.setBorrowerEmail(borrow.getBorrower().getEmail());
-                        history.setBorrowDate(borrow.getBorrowDate());
-                        history.setReturnDate(borrow.getReturnDate());
-
-                        return history;
-                    })
-                    .collect(Collectors.toList());
-            response.setBorrowHistory(borrowHistory);
-        }
+    /**
+     * Searches book titles and authors. Every word of the query must match; the last word also matches
+     * as a prefix, so the endpoint can back a typeahead box.
+     *
+     * @param q The search text.
+     * @param limit Maximum number of results (optional).
+     * @return The best matching titles, one per ISBN, highest score first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<BookDto.SearchResult>> searchBooks(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        int resolvedLimit = limit == null || limit <= 0
+                ? searchProperties.getDefaultLimit()
+                : Math.min(limit, searchProperties.getMaxLimit());
+        return ResponseEntity.ok(bookService.searchBooks(q, resolvedLimit));
+    }
 
-        return response;
+    /**
+     * Exports the whole catalog as newline-delimited JSON, one book per line.
+     * Rows are written to the response as they are read from the database, so memory use stays flat
+     * regardless of catalog size and the first books arrive before the export is complete.
+     *
+     * @param withBorrowHistory Flag indicating whether to include borrow history (optional, default is false).
+     * @return A streaming body writing one BookDto.Response per line.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(required = false, defaultValue = "false") boolean withBorrowHistory) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                int[] written = {0};
+                bookCatalogService.exportCatalog(withBorrowHistory, book -> {
+                    try {
+                        writer.writeValue(generator, book);
+                        generator.writeRaw('\n');
+                        // Flush the first row immediately, then in batches
+                        if (++written[0] == 1 || written[0] % EXPORT_FLUSH_INTERVAL == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
@@ -123,10 +216,77 @@ public class BookController {
     public ResponseEntity<BookBorrowDto.Response> borrowBook(
             @PathVariable Long bookId,
             @Valid @RequestBody BookBorrowDto.BorrowRequest request) {
-        BookBorrow bookBorrow = bookService.borrowBook(request.getBorrowerId(), bookId);
+        BookBorrow bookBorrow = latencyMetrics.time(LatencyMetrics.BORROW_BOOK,
+                () -> bookService.borrowBook(request.getBorrowerId(), bookId));
+        return ResponseEntity.ok(convertToResponse(bookBorrow));
+    }
+
+    /**
+     * Borrows a cart of books for one borrower in a single transaction, for self-checkout stations.
+     * Each book is reported individually. Unless the batch is atomic, the books that can be borrowed are,
+     * and the others are reported; an atomic batch borrows nothing if any book fails.
+     *
+     * @param request The borrower ID, the book IDs and whether the batch is atomic.
+     * @return The outcome of every book; 409 Conflict when an atomic batch was not applied.
+     */
+    @PostMapping("/batch/borrow")
+    public ResponseEntity<BookBorrowDto.BatchResponse> borrowBooks(
+            @Valid @RequestBody BookBorrowDto.BatchRequest request) {
+        return batchResponse(batchLoanService.borrowBooks(
+                request.getBorrowerId(), request.getBookIds(), request.isAtomic()));
+    }
+
+    /**
+     * Returns a cart of books for one borrower in a single transaction, with the same semantics as batch borrow.
+     *
+     * @param request The borrower ID, the book IDs and whether the batch is atomic.
+     * @return The outcome of every book; 409 Conflict when an atomic batch was not applied.
+     */
+    @PostMapping("/batch/return")
+    public ResponseEntity<BookBorrowDto.BatchResponse> returnBooks(
+            @Valid @RequestBody BookBorrowDto.BatchRequest request) {
+        return batchResponse(batchLoanService.returnBooks(
+                request.getBorrowerId(), request.getBookIds(), request.isAtomic()));
+    }
+
+    private static ResponseEntity<BookBorrowDto.BatchResponse> batchResponse(BookBorrowDto.BatchResponse response) {
+        return response.isCommitted()
+                ? ResponseEntity.ok(response)
+                : ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    /**
+     * Allows a borrower to borrow any available copy of a title by its ISBN.
+     *
+     * @param isbn The ISBN of the title to borrow.
+     * @param request The borrow request containing borrower ID.
+     * @return The details of the book borrow transaction, including the ID of the copy that was lent.
+     */
+    @PostMapping("/isbn/{isbn}/borrow")
+    public ResponseEntity<BookBorrowDto.Response> borrowAnyCopy(
+            @PathVariable String isbn,
+            @Valid @RequestBody BookBorrowDto.BorrowRequest request) {
+        BookBorrow bookBorrow = bookService.borrowAnyCopy(request.getBorrowerId(), isbn);
         return ResponseEntity.ok(convertToResponse(bookBorrow));
     }
 
+    /**
+     * Retrieves the number of copies of a title and how many of them are available.
+     * Supports conditional requests against the book catalog version like the listing.
+     *
+     * @param isbn The ISBN of the title.
+     * @return The total and available copy counts.
+     */
+    @GetMapping("/isbn/{isbn}/availability")
+    public ResponseEntity<BookDto.Availability> getAvailability(@PathVariable String isbn, WebRequest webRequest) {
+        if (catalogVersions.checkNotModified(webRequest, CatalogVersions.Catalog.BOOKS)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(bookService.getAvailability(isbn));
+    }
+
     /**
      * Allows a borrower to return a borrowed book by providing the book's ID and borrower's ID.
      *
@@ -138,17 +298,19 @@ public class BookController {
     public ResponseEntity<BookBorrowDto.Response> returnBook(
             @PathVariable Long bookId,
             @Valid @RequestBody BookBorrowDto.BorrowRequest request) {
-        BookBorrow bookBorrow = bookService.returnBook(request.getBorrowerId(), bookId);
+        BookBorrow bookBorrow = latencyMetrics.time(LatencyMetrics.RETURN_BOOK,
+                () -> bookService.returnBook(request.getBorrowerId(), bookId));
         return ResponseEntity.ok(convertToResponse(bookBorrow));
     }
 
     /**
      * Converts a Book object into a response DTO.
+     * Package-private and static so the JMH benchmarks can measure it in isolation.
      *
      * @param book The Book object to convert.
      * @return The BookDto.Response containing book details.
      */
-    private BookDto.Response convertToResponse(Book book) {
+    static BookDto.Response convertToResponse(Book book) {
         BookDto.Response response = new BookDto.Response();
         response.setId(book.getId());
         response.setIsbn(book.getIsbn());
@@ -164,7 +326,7 @@ public class BookController {
      * @param bookBorrow The BookBorrow object to convert.
      * @return The BookBorrowDto.Response containing borrow transaction details.
      */
-    private BookBorrowDto.Response convertToResponse(BookBorrow bookBorrow) {
+    static BookBorrowDto.Response convertToResponse(BookBorrow bookBorrow) {
         BookBorrowDto.Response response = new BookBorrowDto.Response();
         response.setId(bookBorrow.getId());
         response.setBorrowerId(bookBorrow.getBorrower().getId());
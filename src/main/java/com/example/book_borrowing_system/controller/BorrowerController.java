@@ -1,13 +1,33 @@
 package com.example.book_borrowing_system.controller;
 
+import com.example.book_borrowing_system.cache.CatalogVersions;
+import com.example.book_borrowing_system.config.PaginationProperties;
+import com.example.book_borrowing_system.dto.BookBorrowDto;
 import com.example.book_borrowing_system.dto.BorrowerDto;
+import com.example.book_borrowing_system.dto.CursorPage;
 import com.example.book_borrowing_system.model.Borrower;
+import com.example.book_borrowing_system.service.BorrowerImportService;
+import com.example.book_borrowing_system.service.BorrowerLoanService;
 import com.example.book_borrowing_system.service.BorrowerService;
 import com.example.book_borrowing_system.dto.ApiResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import jakarta.validation.Valid;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,6 +36,11 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BorrowerController {
     private final BorrowerService borrowerService;
+    private final BorrowerImportService borrowerImportService;
+    private final BorrowerLoanService borrowerLoanService;
+    private final ObjectMapper objectMapper;
+    private final PaginationProperties paginationProperties;
+    private final CatalogVersions catalogVersions;
 
     /**
      * Registers a new borrower in the system.
@@ -36,18 +61,78 @@ public class BorrowerController {
     }
 
     /**
-     * Retrieves a list of all borrowers in the system.
+     * Imports borrowers from a CSV (name,email) or NDJSON request body.
+     * The body is parsed incrementally and committed in chunks. The response is streamed as NDJSON:
+     * one line per rejected row, one progress line per committed chunk and a final summary line.
      *
-     * @return A response containing a list of all borrowers' details.
+     * @param contentType Either text/csv or application/x-ndjson.
+     * @param body The rows to import.
+     * @param response The servlet response the report is streamed to.
+     * @throws IOException if the body cannot be read or the report cannot be written.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public void importBorrowers(
+            @RequestHeader("Content-Type") MediaType contentType,
+            InputStream body,
+            HttpServletResponse response) throws IOException {
+        BorrowerDto.ImportFormat format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? BorrowerDto.ImportFormat.NDJSON
+                : BorrowerDto.ImportFormat.CSV;
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            BorrowerDto.ImportEvent summary = borrowerImportService.importBorrowers(reader, format, event -> {
+                try {
+                    writeEvent(writer, generator, event);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writeEvent(writer, generator, summary);
+        }
+    }
+
+    private void writeEvent(ObjectWriter writer, JsonGenerator generator, BorrowerDto.ImportEvent event)
+            throws IOException {
+        writer.writeValue(generator, event);
+        generator.writeRaw('\n');
+        // Progress is flushed so clients can follow the import as it runs
+        if (event.getType() != BorrowerDto.ImportEventType.ERROR) {
+            generator.flush();
+        }
+    }
+
+    /**
+     * Retrieves a page of borrowers in the system ordered by ID.
+     * The cursor of the next page is returned in the X-Next-Cursor header and is absent on the last page.
+     * Unchanged borrower data is answered with 304 when If-None-Match or If-Modified-Since still matches.
+     *
+     * @param cursor Cursor returned with the previous page (optional).
+     * @param size Maximum number of borrowers on the page (optional).
+     * @return A response containing a page of borrowers' details.
      */
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<BorrowerDto.Response>>> getAllBorrowers() {
-        List<BorrowerDto.Response> borrowers = borrowerService.getAllBorrowers().stream()
+    public ResponseEntity<ApiResponse<List<BorrowerDto.Response>>> getAllBorrowers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        if (catalogVersions.checkNotModified(webRequest, CatalogVersions.Catalog.BORROWERS)) {
+            return null;
+        }
+        CursorPage<Borrower> page = borrowerService.getBorrowersPage(cursor, paginationProperties.resolveSize(size));
+        List<BorrowerDto.Response> borrowers = page.getItems().stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
 
-        return ResponseEntity.ok(ApiResponse.<List<BorrowerDto.Response>>builder()
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (page.getNextCursor() != null) {
+            builder.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(ApiResponse.<List<BorrowerDto.Response>>builder()
                 .status("SUCCESS")
                 .message("Borrowers retrieved successfully")
                 .data(borrowers)
@@ -62,12 +147,62 @@ public class BorrowerController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<BorrowerDto.Response>> getBorrowerById(
-            @PathVariable long id) {
+            @PathVariable long id,
+            WebRequest webRequest) {
+        if (catalogVersions.checkNotModified(webRequest, CatalogVersions.Catalog.BORROWERS)) {
+            return null;
+        }
         Borrower borrower = borrowerService.getBorrowerById(id);
-        return ResponseEntity.ok(ApiResponse.<BorrowerDto.Response>builder()
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.<BorrowerDto.Response>builder()
+                        .status("SUCCESS")
+                        .message("Borrower retrieved successfully")
+                        .data(convertToResponse(borrower))
+                        .build());
+    }
+
+    /**
+     * Retrieves the books a borrower currently has on loan, oldest loan first.
+     *
+     * @param id The ID of the borrower.
+     * @return A response containing the borrower's active loans with their expected return dates.
+     */
+    @GetMapping("/{id}/loans")
+    public ResponseEntity<ApiResponse<List<BookBorrowDto.LoanResponse>>> getActiveLoans(
+            @PathVariable long id) {
+        return ResponseEntity.ok(ApiResponse.<List<BookBorrowDto.LoanResponse>>builder()
                 .status("SUCCESS")
-                .message("Borrower retrieved successfully")
-                .data(convertToResponse(borrower))
+                .message("Active loans retrieved successfully")
+                .data(borrowerLoanService.getActiveLoans(id))
+                .build());
+    }
+
+    /**
+     * Retrieves a page of a borrower's loans, returned and active, newest first.
+     * The cursor of the next page is returned in the X-Next-Cursor header and is absent on the last page.
+     *
+     * @param id The ID of the borrower.
+     * @param cursor Cursor returned with the previous page (optional).
+     * @param size Maximum number of loans on the page (optional).
+     * @return A response containing a page of the borrower's loans.
+     */
+    @GetMapping("/{id}/loans/history")
+    public ResponseEntity<ApiResponse<List<BookBorrowDto.LoanResponse>>> getLoanHistory(
+            @PathVariable long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<BookBorrowDto.LoanResponse> page =
+                borrowerLoanService.getLoanHistory(id, cursor, paginationProperties.resolveSize(size));
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(ApiResponse.<List<BookBorrowDto.LoanResponse>>builder()
+                .status("SUCCESS")
+                .message("Loan history retrieved successfully")
+                .data(page.getItems())
                 .build());
     }
 
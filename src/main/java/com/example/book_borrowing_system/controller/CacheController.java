@@ -0,0 +1,26 @@
+package com.example.book_borrowing_system.controller;
+
+import com.example.book_borrowing_system.cache.BookIsbnCache;
+import com.example.book_borrowing_system.dto.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+public class CacheController {
+    private final BookIsbnCache bookIsbnCache;
+
+    /**
+     * Retrieves the size and the hit, miss and eviction counters of the ISBN lookup cache.
+     *
+     * @return The ISBN cache statistics.
+     */
+    @GetMapping("/isbn")
+    public ResponseEntity<CacheStats> getIsbnCacheStats() {
+        return ResponseEntity.ok(bookIsbnCache.stats());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.book_borrowing_system.controller;
+
+import com.example.book_borrowing_system.dto.HoldDto;
+import com.example.book_borrowing_system.service.HoldService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/holds")
+@RequiredArgsConstructor
+public class HoldController {
+    private final HoldService holdService;
+
+    /**
+     * Places a hold on a title that has no copy available. The borrower is queued behind earlier holds,
+     * and a returned copy is set aside for the oldest one.
+     *
+     * @param request The borrower ID and the ISBN of the title.
+     * @return The waiting hold with its place in the queue.
+     */
+    @PostMapping
+    public ResponseEntity<HoldDto.Response> placeHold(@Valid @RequestBody HoldDto.PlaceRequest request) {
+        return ResponseEntity.ok(holdService.placeHold(request.getBorrowerId(), request.getIsbn()));
+    }
+
+    /**
+     * Retrieves a hold. A waiting hold reports its place in the queue; a ready hold reports the copy set
+     * aside for pickup and when the pickup window closes. The copy is picked up by borrowing it.
+     *
+     * @param holdId The ID of the hold.
+     * @return The hold's status.
+     */
+    @GetMapping("/{holdId}")
+    public ResponseEntity<HoldDto.Response> getHold(@PathVariable Long holdId) {
+        return ResponseEntity.ok(holdService.getHold(holdId));
+    }
+
+    /**
+     * Cancels a waiting or ready hold. A copy set aside for it passes to the next holder.
+     *
+     * @param holdId The ID of the hold.
+     * @param request The ID of the borrower who placed the hold.
+     * @return The cancelled hold.
+     */
+    @PostMapping("/{holdId}/cancel")
+    public ResponseEntity<HoldDto.Response> cancelHold(
+            @PathVariable Long holdId,
+            @Valid @RequestBody HoldDto.CancelRequest request) {
+        return ResponseEntity.ok(holdService.cancelHold(request.getBorrowerId(), holdId));
+    }
+}
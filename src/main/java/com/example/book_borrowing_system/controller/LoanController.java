@@ -0,0 +1,73 @@
+package com.example.book_borrowing_system.controller;
+
+import com.example.book_borrowing_system.config.PaginationProperties;
+import com.example.book_borrowing_system.dto.ApiResponse;
+import com.example.book_borrowing_system.dto.BookBorrowDto;
+import com.example.book_borrowing_system.dto.CursorPage;
+import com.example.book_borrowing_system.service.OverdueLoanService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/loans")
+@RequiredArgsConstructor
+public class LoanController {
+    private final OverdueLoanService overdueLoanService;
+    private final PaginationProperties paginationProperties;
+
+    /**
+     * Retrieves a page of overdue loans, most overdue first.
+     * The cursor of the next page is returned in the X-Next-Cursor header and is absent on the last page.
+     *
+     * @param cursor Cursor returned with the previous page (optional).
+     * @param size Maximum number of loans on the page (optional).
+     * @return A response containing a page of overdue loans.
+     */
+    @GetMapping("/overdue")
+    public ResponseEntity<ApiResponse<List<BookBorrowDto.OverdueResponse>>> getOverdueLoans(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<BookBorrowDto.OverdueResponse> page =
+                overdueLoanService.getOverdueLoans(cursor, paginationProperties.resolveSize(size));
+        return withNextCursor(page).body(ApiResponse.<List<BookBorrowDto.OverdueResponse>>builder()
+                .status("SUCCESS")
+                .message("Overdue loans retrieved successfully")
+                .data(page.getItems())
+                .build());
+    }
+
+    /**
+     * Retrieves a page of borrowers with overdue loans, ordered by borrower ID.
+     * The cursor of the next page is returned in the X-Next-Cursor header and is absent on the last page.
+     *
+     * @param cursor Cursor returned with the previous page (optional).
+     * @param size Maximum number of borrowers on the page (optional).
+     * @return A response containing each borrower's overdue loan count and oldest borrow date.
+     */
+    @GetMapping("/overdue/borrowers")
+    public ResponseEntity<ApiResponse<List<BookBorrowDto.OverdueBorrowerSummary>>> getOverdueBorrowers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<BookBorrowDto.OverdueBorrowerSummary> page =
+                overdueLoanService.getOverdueBorrowers(cursor, paginationProperties.resolveSize(size));
+        return withNextCursor(page).body(ApiResponse.<List<BookBorrowDto.OverdueBorrowerSummary>>builder()
+                .status("SUCCESS")
+                .message("Borrowers with overdue loans retrieved successfully")
+                .data(page.getItems())
+                .build());
+    }
+
+    private ResponseEntity.BodyBuilder withNextCursor(CursorPage<?> page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.book_borrowing_system.controller;
+
+import com.example.book_borrowing_system.admission.AdmissionControl;
+import com.example.book_borrowing_system.dto.AdmissionStats;
+import com.example.book_borrowing_system.dto.LatencyStats;
+import com.example.book_borrowing_system.dto.PersistenceStats;
+import com.example.book_borrowing_system.metrics.LatencyMetrics;
+import com.example.book_borrowing_system.metrics.PersistenceMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final PersistenceMetrics persistenceMetrics;
+    private final LatencyMetrics latencyMetrics;
+    private final AdmissionControl admissionControl;
+
+    /**
+     * Retrieves persistence metrics: statements and entity loads per endpoint, connection acquisition times,
+     * the most recent slow statements with their SQL and the most recent suspected N+1 patterns.
+     *
+     * @return The persistence metrics.
+     */
+    @GetMapping("/persistence")
+    public ResponseEntity<PersistenceStats> getPersistenceStats() {
+        return ResponseEntity.ok(persistenceMetrics.snapshot());
+    }
+
+    /**
+     * Retrieves request latency percentiles, request and error rates per endpoint, errors per exception type,
+     * and latency percentiles of the timed service calls.
+     *
+     * @return The latency metrics.
+     */
+    @GetMapping("/latency")
+    public ResponseEntity<LatencyStats> getLatencyStats() {
+        return ResponseEntity.ok(latencyMetrics.snapshot());
+    }
+
+    /**
+     * Exposes the latency metrics in the Prometheus text format for scraping.
+     *
+     * @return The latency metrics as Prometheus summaries and counters.
+     */
+    @GetMapping(value = "/prometheus", produces = PROMETHEUS_CONTENT_TYPE)
+    public ResponseEntity<String> scrape() {
+        return ResponseEntity.ok(latencyMetrics.scrape());
+    }
+
+    /**
+     * Retrieves the current concurrency limit, load and rejection counts of every write route under
+     * admission control.
+     *
+     * @return The admission statistics.
+     */
+    @GetMapping("/admission")
+    public ResponseEntity<AdmissionStats> getAdmissionStats() {
+        return ResponseEntity.ok(admissionControl.snapshot());
+    }
+}
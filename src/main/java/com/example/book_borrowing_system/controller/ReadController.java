@@ -0,0 +1,117 @@
+package com.example.book_borrowing_system.controller;
+
+import com.example.book_borrowing_system.config.ReadProperties;
+import com.example.book_borrowing_system.dto.BookDto;
+import com.example.book_borrowing_system.dto.BorrowerDto;
+import com.example.book_borrowing_system.service.CatalogReadService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Read-only API for high-volume clients such as kiosks. Responses are newline-delimited JSON written from the
+ * async task executor while rows are still being read, so the servlet thread is released immediately and a
+ * client that reads slowly throttles the reads instead of letting the server buffer its response.
+ * <p>
+ * Streams are ordered by ID and every row carries its ID, so a client resumes a stream that stopped at its
+ * row limit by passing the last ID it read as {@code afterId}. The limit applied is sent in the X-Row-Limit
+ * header before the first row: a stream with that many rows may have more.
+ */
+@RestController
+@RequestMapping("/api/read")
+@RequiredArgsConstructor
+public class ReadController {
+    public static final String ROW_LIMIT_HEADER = "X-Row-Limit";
+
+    private final CatalogReadService catalogReadService;
+    private final ReadProperties readProperties;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Streams copies with their borrow status, ordered by ID.
+     *
+     * @param afterId ID of the last copy already read, to continue after (optional).
+     * @param limit Maximum number of copies to stream (optional, capped at library.read.max-rows).
+     * @return A streaming body writing one BookDto.StatusResponse per line.
+     */
+    @GetMapping(value = "/books", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBooks(
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(required = false) Long limit) {
+        long rows = readProperties.resolveLimit(limit);
+        return limited(rows, this.<BookDto.StatusResponse>ndjson(
+                sink -> catalogReadService.streamBooks(afterId, rows, sink)));
+    }
+
+    /**
+     * Retrieves every copy of a title with its borrow status.
+     *
+     * @param isbn The ISBN of the title.
+     * @return A streaming body writing one BookDto.StatusResponse per copy.
+     */
+    @GetMapping(value = "/books/isbn/{isbn}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getCopies(@PathVariable String isbn) {
+        // Read before streaming so an unknown ISBN is reported as 404 rather than as an empty stream
+        List<BookDto.StatusResponse> copies = catalogReadService.getCopies(isbn);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(this.<BookDto.StatusResponse>ndjson(copies::forEach));
+    }
+
+    /**
+     * Streams borrowers with their number of active loans, ordered by ID.
+     *
+     * @param afterId ID of the last borrower already read, to continue after (optional).
+     * @param limit Maximum number of borrowers to stream (optional, capped at library.read.max-rows).
+     * @return A streaming body writing one BorrowerDto.StatusResponse per line.
+     */
+    @GetMapping(value = "/borrowers", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBorrowers(
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(required = false) Long limit) {
+        long rows = readProperties.resolveLimit(limit);
+        return limited(rows, this.<BorrowerDto.StatusResponse>ndjson(
+                sink -> catalogReadService.streamBorrowers(afterId, rows, sink)));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> limited(long rowLimit, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(ROW_LIMIT_HEADER, Long.toString(rowLimit))
+                .body(body);
+    }
+
+    private <T> StreamingResponseBody ndjson(Consumer<Consumer<T>> producer) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        int flushInterval = readProperties.getChunkSize();
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                int[] written = {0};
+                producer.accept(row -> {
+                    try {
+                        writer.writeValue(generator, row);
+                        generator.writeRaw('\n');
+                        // Flush once per chunk; the flush blocks while the client is not reading
+                        if (++written[0] == 1 || written[0] % flushInterval == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.book_borrowing_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class AdmissionStats {
+    private int maxTotalInFlight;
+    private int totalInFlight;
+    private List<RouteStats> routes;
+
+    @Data
+    @AllArgsConstructor
+    public static class RouteStats {
+        private String route;
+        private int limit;
+        private int inFlight;
+        private int queued;
+        private long admitted;
+        // Rejected with 429 because the queue was full
+        private long rejected;
+        // Rejected with 503 after waiting too long
+        private long timedOut;
+    }
+}
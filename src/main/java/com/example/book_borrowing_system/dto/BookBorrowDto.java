@@ -1,8 +1,12 @@
 package com.example.book_borrowing_system.dto;
 
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class BookBorrowDto {
     @Data
@@ -11,6 +15,40 @@ public class BookBorrowDto {
         private Long bookId;
     }
 
+    @Data
+    public static class BatchRequest {
+        @NotNull(message = "Borrower ID is required")
+        private Long borrowerId;
+
+        @NotEmpty(message = "At least one book ID is required")
+        private List<Long> bookIds;
+
+        // When true, the batch is only applied if every item succeeds
+        private boolean atomic;
+    }
+
+    public enum BatchItemStatus {
+        BORROWED, RETURNED, NOT_FOUND, NOT_AVAILABLE, NOT_BORROWED, DUPLICATE, ROLLED_BACK
+    }
+
+    @Data
+    public static class BatchItemResult {
+        private int index;
+        private Long bookId;
+        private BatchItemStatus status;
+        private String message;
+        private Long borrowId;
+        private LocalDateTime expectedReturnDate;
+    }
+
+    @Data
+    public static class BatchResponse {
+        private boolean committed;
+        private int succeeded;
+        private int failed;
+        private List<BatchItemResult> results;
+    }
+
     @Data
     public static class Response {
         private Long id;
@@ -22,4 +60,73 @@ public class BookBorrowDto {
         private LocalDateTime expectedReturnDate; // New field for expected return date
         
     }
+
+    /**
+     * Flat read-only view of a borrow record joined to its borrower.
+     * Populated directly by JPQL constructor expressions so listing queries never hydrate entities.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Summary {
+        private Long id;
+        private Long bookId;
+        private Long borrowerId;
+        private String borrowerName;
+        private String borrowerEmail;
+        private LocalDateTime borrowDate;
+        private LocalDateTime returnDate;
+    }
+
+    /**
+     * Borrow record of a borrower joined to the borrowed book, populated by a JPQL constructor expression.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class LoanSummary {
+        private Long id;
+        private Long bookId;
+        private String isbn;
+        private String title;
+        private String author;
+        private LocalDateTime borrowDate;
+        private LocalDateTime returnDate;
+    }
+
+    @Data
+    public static class LoanResponse {
+        private Long id;
+        private Long bookId;
+        private String isbn;
+        private String title;
+        private String author;
+        private LocalDateTime borrowDate;
+        private LocalDateTime returnDate;
+        private LocalDateTime expectedReturnDate;
+        private boolean isOverdue;
+    }
+
+    @Data
+    public static class OverdueResponse {
+        private Long id;
+        private Long bookId;
+        private Long borrowerId;
+        private String borrowerName;
+        private String borrowerEmail;
+        private LocalDateTime borrowDate;
+        private LocalDateTime expectedReturnDate;
+        private long daysOverdue;
+    }
+
+    /**
+     * Overdue loans of one borrower, aggregated in the database.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class OverdueBorrowerSummary {
+        private Long borrowerId;
+        private String borrowerName;
+        private String borrowerEmail;
+        private long overdueCount;
+        private LocalDateTime oldestBorrowDate;
+    }
 }
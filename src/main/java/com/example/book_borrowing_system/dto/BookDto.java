@@ -1,7 +1,9 @@
 package com.example.book_borrowing_system.dto;
 
+import com.example.book_borrowing_system.model.CatalogChange;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -45,5 +47,123 @@ public class BookDto {
         private LocalDateTime borrowDate;
         private LocalDateTime returnDate;
     }
-    
+
+    @Data
+    @AllArgsConstructor
+    public static class CatalogEntry {
+        private String isbn;
+        private String title;
+        private String author;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class SearchResult {
+        private String isbn;
+        private String title;
+        private String author;
+        private double score;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Availability {
+        private String isbn;
+        private long totalCopies;
+        private long availableCopies;
+    }
+
+    /**
+     * A copy joined to its active borrow, if any, as read by the streaming read API.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class StatusSummary {
+        private Long id;
+        private String isbn;
+        private String title;
+        private String author;
+        private boolean available;
+        private Long borrowerId;
+        private LocalDateTime borrowDate;
+    }
+
+    @Data
+    public static class StatusResponse {
+        private Long id;
+        private String isbn;
+        private String title;
+        private String author;
+        private boolean available;
+        private Long borrowerId;
+        private LocalDateTime borrowDate;
+        private LocalDateTime expectedReturnDate;
+        private boolean isOverdue;
+    }
+
+    /**
+     * Latest change of a book in the catalog change feed, with the book's current state.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Change {
+        private long seq;
+        private CatalogChange.Type type;
+        private Long bookId;
+        private String isbn;
+        private String title;
+        private String author;
+        private boolean available;
+        private LocalDateTime changedAt;
+    }
+
+    /**
+     * Availability change of a book, pushed to availability stream subscribers.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class AvailabilityChange {
+        private Long bookId;
+        private String isbn;
+        private boolean available;
+        private LocalDateTime changedAt;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class CopyIsbn {
+        private Long id;
+        private String isbn;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ChangesResponse {
+        private List<Change> changes;
+        // Sequence to pass as since on the next call; unchanged when there were no new changes
+        private long nextSince;
+        private boolean hasMore;
+    }
+
+    @Data
+    public static class BulkItemResult {
+        private int index;
+        private BulkItemStatus status;
+        private Long bookId;
+        private String message;
+    }
+
+    public enum BulkItemStatus {
+        CREATED, CONFLICT, INVALID,
+        // The item's chunk could not be stored and was rolled back; the item can be sent again
+        FAILED
+    }
+
+    @Data
+    public static class BulkRegisterResponse {
+        private int created;
+        private int failed;
+        private List<BulkItemResult> results;
+    }
+
 }
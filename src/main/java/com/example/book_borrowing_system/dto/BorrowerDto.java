@@ -1,6 +1,8 @@
 package com.example.book_borrowing_system.dto;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
@@ -27,4 +29,53 @@ public class BorrowerDto {
         private String name;
         private String email;
     }
-}
\ No newline at end of file
+
+    @Data
+    @AllArgsConstructor
+    public static class StatusResponse {
+        private Long id;
+        private String name;
+        private String email;
+        private long activeLoans;
+    }
+
+    public enum ImportFormat {
+        CSV, NDJSON
+    }
+
+    public enum ImportEventType {
+        ERROR, PROGRESS, SUMMARY
+    }
+
+    /**
+     * One line of the import report. Errors carry the source line number and message,
+     * progress and summary events carry the running counters.
+     */
+    @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ImportEvent {
+        private ImportEventType type;
+        private Long line;
+        private String message;
+        private Long processed;
+        private Long imported;
+        private Long failed;
+
+        public static ImportEvent error(long line, String message) {
+            ImportEvent event = new ImportEvent();
+            event.setType(ImportEventType.ERROR);
+            event.setLine(line);
+            event.setMessage(message);
+            return event;
+        }
+
+        public static ImportEvent counters(ImportEventType type, long processed, long imported, long failed) {
+            ImportEvent event = new ImportEvent();
+            event.setType(type);
+            event.setProcessed(processed);
+            event.setImported(imported);
+            event.setFailed(failed);
+            return event;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.book_borrowing_system.dto;
+
+import com.example.book_borrowing_system.exception.IllegalOperationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of rows read with keyset pagination on the ID column, or on a timestamp followed by the ID.
+ * The next cursor is opaque to clients and is null on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String CURSOR_PREFIX = "id:";
+    private static final String TIMESTAMP_CURSOR_PREFIX = "ts:";
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    /**
+     * Builds a page from rows fetched with a limit of one more than the page size.
+     * The extra row only signals that another page exists and is not returned.
+     * @param rows the fetched rows, ordered by ID
+     * @param size the page size
+     * @param idExtractor extracts the ID used as the keyset
+     * @return the page
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Long> idExtractor) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, encode(idExtractor.apply(items.get(size - 1))));
+    }
+
+    /**
+     * Builds a page from rows ordered by a timestamp and then by ID, fetched with a limit of one more
+     * than the page size.
+     * @param rows the fetched rows, ordered by timestamp and ID
+     * @param size the page size
+     * @param timestampExtractor extracts the timestamp used as the leading keyset column
+     * @param idExtractor extracts the ID that breaks ties between equal timestamps
+     * @return the page
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, LocalDateTime> timestampExtractor,
+                                       Function<T, Long> idExtractor) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        T last = items.get(size - 1);
+        return new CursorPage<>(items, encode(timestampExtractor.apply(last), idExtractor.apply(last)));
+    }
+
+    /**
+     * Encodes the last seen ID as an opaque cursor.
+     * @param lastId the ID of the last row on the page
+     * @return the cursor
+     */
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor into the last seen ID. A missing cursor starts from the beginning.
+     * @param cursor the cursor supplied by the client, may be null
+     * @return the ID after which the next page starts
+     * @throws IllegalOperationException if the cursor is malformed
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalOperationException("Invalid cursor");
+            }
+            return Long.parseLong(value.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalOperationException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Encodes the timestamp and ID of the last seen row as an opaque cursor.
+     * @param lastTimestamp the timestamp of the last row on the page
+     * @param lastId the ID of the last row on the page
+     * @return the cursor
+     */
+    public static String encode(LocalDateTime lastTimestamp, long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((TIMESTAMP_CURSOR_PREFIX + lastTimestamp + "|" + lastId)
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode(LocalDateTime, long)}.
+     * @param cursor the cursor supplied by the client, may be null
+     * @return the timestamp and ID after which the next page starts, or null to start from the beginning
+     * @throws IllegalOperationException if the cursor is malformed
+     */
+    public static TimestampKey decodeTimestampKey(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            if (!value.startsWith(TIMESTAMP_CURSOR_PREFIX) || separator < 0) {
+                throw new IllegalOperationException("Invalid cursor");
+            }
+            return new TimestampKey(
+                    LocalDateTime.parse(value.substring(TIMESTAMP_CURSOR_PREFIX.length(), separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalOperationException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Position of a row in a listing ordered by timestamp and then by ID.
+     */
+    public record TimestampKey(LocalDateTime timestamp, long id) {
+    }
+}
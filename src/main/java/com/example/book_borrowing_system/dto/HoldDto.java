@@ -0,0 +1,38 @@
+package com.example.book_borrowing_system.dto;
+
+import com.example.book_borrowing_system.model.BookHold;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+public class HoldDto {
+    @Data
+    public static class PlaceRequest {
+        @NotNull(message = "Borrower ID is required")
+        private Long borrowerId;
+
+        @NotBlank(message = "ISBN is required")
+        private String isbn;
+    }
+
+    @Data
+    public static class CancelRequest {
+        @NotNull(message = "Borrower ID is required")
+        private Long borrowerId;
+    }
+
+    @Data
+    public static class Response {
+        private Long id;
+        private Long borrowerId;
+        private String isbn;
+        private BookHold.Status status;
+        private Long position; // Place in the queue, 1 being next; only set while waiting
+        private Long bookId; // Copy held for pickup; only set once ready
+        private LocalDateTime placedAt;
+        private LocalDateTime readyAt;
+        private LocalDateTime expiresAt;
+    }
+}
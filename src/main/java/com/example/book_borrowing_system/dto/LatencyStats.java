@@ -0,0 +1,48 @@
+package com.example.book_borrowing_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class LatencyStats {
+    private List<EndpointLatency> endpoints;
+    private List<TimerLatency> services;
+
+    @Data
+    @AllArgsConstructor
+    public static class EndpointLatency {
+        private String endpoint;
+        private long requests;
+        private double requestsPerSecond;
+        private long errors;
+        private double errorRate;
+        private Map<String, Long> exceptions;
+        private Percentiles latency;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class TimerLatency {
+        private String name;
+        private long calls;
+        private Percentiles latency;
+    }
+
+    /**
+     * Latency distribution in milliseconds.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Percentiles {
+        private double mean;
+        private double p50;
+        private double p90;
+        private double p99;
+        private double p999;
+        private double max;
+    }
+}
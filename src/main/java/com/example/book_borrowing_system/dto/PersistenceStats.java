@@ -0,0 +1,56 @@
+package com.example.book_borrowing_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PersistenceStats {
+    private long statements;
+    private long slowStatementCount;
+    private ConnectionStats connections;
+    private List<EndpointStats> endpoints;
+    private List<SlowStatement> slowStatements;
+    private List<NPlusOneSuspect> suspectedNPlusOne;
+
+    @Data
+    @AllArgsConstructor
+    public static class ConnectionStats {
+        private long acquisitions;
+        private double avgAcquisitionMillis;
+        private double maxAcquisitionMillis;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class EndpointStats {
+        private String endpoint;
+        private long requests;
+        private double avgQueries;
+        private long maxQueries;
+        private double avgEntityLoads;
+        private long maxEntityLoads;
+        private long suspectedNPlusOneRequests;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class SlowStatement {
+        private String endpoint;
+        private String sql;
+        private double durationMillis;
+        private Instant at;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class NPlusOneSuspect {
+        private String endpoint;
+        private String sql;
+        private int executions;
+        private Instant at;
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.book_borrowing_system.feed;
+
+import com.example.book_borrowing_system.config.AvailabilityStreamProperties;
+import com.example.book_borrowing_system.dto.BookDto;
+import com.example.book_borrowing_system.exception.IllegalOperationException;
+import com.example.book_borrowing_system.repository.BookRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Pushes book availability changes to subscribers as server-sent events, so patrons waiting for a title
+ * do not have to poll for it.
+ * <p>
+ * Borrows and returns hand their change over once their transaction commits. Publishing only appends to an
+ * in-memory queue, so a transaction never waits for subscribers. A single dispatcher takes changes off that
+ * queue in commit order, resolving the ISBNs of everything queued with one query, and appends each event to the
+ * bounded buffer of every matching subscriber. Buffers are written by short tasks of their own, so a slow client only delays itself,
+ * and one that falls {@code maxPendingEvents} behind is disconnected. An idle subscriber holds no thread,
+ * only its emitter and an empty buffer.
+ */
+@Slf4j
+@Component
+public class AvailabilityStream {
+
+    // Marks a heartbeat in a subscriber's buffer; compared by identity
+    private static final BookDto.AvailabilityChange HEARTBEAT = new BookDto.AvailabilityChange(null, null, false, null);
+    // Changes taken off the queue per ISBN lookup, bounding the lookup's IN list
+    private static final int DISPATCH_BATCH_SIZE = 500;
+
+    private final BookRepository bookRepository;
+    private final AvailabilityStreamProperties properties;
+    private final TaskExecutor writerExecutor;
+    private final Environment environment;
+    private final BlockingQueue<BookDto.AvailabilityChange> changes;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> allBooks = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Subscriber>> byBookId = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> byIsbn = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    public AvailabilityStream(BookRepository bookRepository, AvailabilityStreamProperties properties,
+                              @Qualifier("applicationTaskExecutor") TaskExecutor writerExecutor,
+                              Environment environment) {
+        this.bookRepository = bookRepository;
+        this.properties = properties;
+        this.writerExecutor = writerExecutor;
+        this.environment = environment;
+        this.changes = new LinkedBlockingQueue<>(properties.getMaxQueuedChanges());
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void startDispatcher() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("availability-dispatcher-");
+        executor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        executor.setDaemon(true);
+        executor.execute(this::dispatch);
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * Opens a stream of availability changes.
+     * @param bookId only stream changes of this copy (optional)
+     * @param isbn only stream changes of copies with this ISBN (optional)
+     * @return the emitter the events are written to; without a filter it receives every change
+     * @throws IllegalOperationException if both filters are given
+     */
+    public SseEmitter subscribe(Long bookId, String isbn) {
+        if (bookId != null && isbn != null) {
+            throw new IllegalOperationException("Filter availability events by book ID or by ISBN, not both");
+        }
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeout().toMillis());
+        Subscriber subscriber;
+        if (bookId != null) {
+            subscriber = new Subscriber(emitter, self -> removeFrom(byBookId, bookId, self));
+            addTo(byBookId, bookId, subscriber);
+        } else if (isbn != null) {
+            subscriber = new Subscriber(emitter, self -> removeFrom(byIsbn, isbn, self));
+            addTo(byIsbn, isbn, subscriber);
+        } else {
+            subscriber = new Subscriber(emitter, allBooks::remove);
+            allBooks.add(subscriber);
+        }
+        subscribers.add(subscriber);
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        // Ends the response normally instead of failing the request; clients reconnect on their own
+        emitter.onTimeout(emitter::complete);
+        return emitter;
+    }
+
+    /**
+     * Publishes a change of a book's availability once the current transaction commits, or immediately when
+     * there is none. Never blocks: when the dispatcher is too far behind, the change is dropped.
+     * @param bookId the ID of the book that was borrowed or returned
+     * @param available whether the book is available after the change
+     */
+    public void publishAfterCommit(Long bookId, boolean available) {
+        BookDto.AvailabilityChange change = new BookDto.AvailabilityChange(bookId, null, available, LocalDateTime.now());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(change);
+            }
+        });
+    }
+
+    private void enqueue(BookDto.AvailabilityChange change) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (!changes.offer(change)) {
+            log.warn("Availability change queue is full, dropping change of book {}", change.getBookId());
+        }
+    }
+
+    void dispatch() {
+        long heartbeatNanos = properties.getHeartbeatInterval().toNanos();
+        long nextHeartbeat = System.nanoTime() + heartbeatNanos;
+        while (running) {
+            try {
+                BookDto.AvailabilityChange change =
+                        changes.poll(Math.max(0, nextHeartbeat - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (change != null) {
+                    List<BookDto.AvailabilityChange> batch = new ArrayList<>();
+                    batch.add(change);
+                    changes.drainTo(batch, DISPATCH_BATCH_SIZE - 1);
+                    deliver(batch);
+                }
+                if (System.nanoTime() - nextHeartbeat >= 0) {
+                    subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+                    nextHeartbeat = System.nanoTime() + heartbeatNanos;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to dispatch availability change", e);
+            }
+        }
+    }
+
+    private void deliver(List<BookDto.AvailabilityChange> batch) {
+        // Resolved here rather than in the borrow or return, which never load the book
+        Set<Long> bookIds = new HashSet<>();
+        batch.forEach(change -> bookIds.add(change.getBookId()));
+        Map<Long, String> isbns = new HashMap<>();
+        bookRepository.findIsbnsByIdIn(bookIds).forEach(copy -> isbns.put(copy.getId(), copy.getIsbn()));
+
+        for (BookDto.AvailabilityChange change : batch) {
+            change.setIsbn(isbns.get(change.getBookId()));
+            allBooks.forEach(subscriber -> subscriber.offer(change));
+            byBookId.getOrDefault(change.getBookId(), Set.of()).forEach(subscriber -> subscriber.offer(change));
+            if (change.getIsbn() != null) {
+                byIsbn.getOrDefault(change.getIsbn(), Set.of()).forEach(subscriber -> subscriber.offer(change));
+            }
+        }
+    }
+
+    private static <K> void addTo(Map<K, Set<Subscriber>> index, K key, Subscriber subscriber) {
+        index.compute(key, (k, set) -> {
+            Set<Subscriber> subscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+            subscribers.add(subscriber);
+            return subscribers;
+        });
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Subscriber>> index, K key, Subscriber subscriber) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Consumer<Subscriber> unregister;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Queue<BookDto.AvailabilityChange> pending = new ArrayDeque<>();
+        private boolean writing;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter, Consumer<Subscriber> unregister) {
+            this.emitter = emitter;
+            this.unregister = unregister;
+        }
+
+        void offer(BookDto.AvailabilityChange change) {
+            boolean overflow = false;
+            lock.lock();
+            try {
+                // Heartbeats are only needed on idle streams
+                if (closed || change == HEARTBEAT && (writing || !pending.isEmpty())) {
+                    return;
+                }
+                if (pending.size() >= properties.getMaxPendingEvents()) {
+                    overflow = true;
+                } else {
+                    pending.add(change);
+                    if (writing) {
+                        return;
+                    }
+                    writing = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (overflow) {
+                // Too far behind to catch up; the client reconnects and reads the current state again
+                close();
+                emitter.complete();
+                return;
+            }
+            writerExecutor.execute(this::write);
+        }
+
+        private void write() {
+            while (true) {
+                BookDto.AvailabilityChange change;
+                lock.lock();
+                try {
+                    change = pending.poll();
+                    if (change == null || closed) {
+                        writing = false;
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    emitter.send(change == HEARTBEAT
+                            ? SseEmitter.event().comment("heartbeat")
+                            : SseEmitter.event().name("availability").data(change, MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away or the stream already ended
+                    close();
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                pending.clear();
+            } finally {
+                lock.unlock();
+            }
+            subscribers.remove(this);
+            unregister.accept(this);
+        }
+    }
+}
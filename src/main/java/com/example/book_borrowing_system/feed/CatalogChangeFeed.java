@@ -0,0 +1,141 @@
+package com.example.book_borrowing_system.feed;
+
+import com.example.book_borrowing_system.config.CatalogFeedProperties;
+import com.example.book_borrowing_system.dto.BookDto;
+import com.example.book_borrowing_system.model.CatalogChange;
+import com.example.book_borrowing_system.repository.CatalogChangeRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Change feed of book registrations and availability changes, read by clients that mirror the catalog.
+ * <p>
+ * Changes are collected per transaction and written just before it commits, each drawing its sequence number
+ * from a database sequence, so writers of different books never wait for each other. Numbers are handed out
+ * in time order but commit in any order, so readers stop at a watermark: a change is served only once its
+ * number is older than the settle time, by which the writers of all lower numbers have committed. A client
+ * that has seen sequence N therefore never misses a change that commits later with a lower number.
+ * <p>
+ * The feed is compacted by book: each book keeps only its latest change, so the feed never outgrows the
+ * catalog, and a client that syncs from 0 receives every book once.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogChangeFeed {
+
+    private static final String PENDING_CHANGES = CatalogChangeFeed.class.getName() + ".PENDING_CHANGES";
+
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final CatalogFeedProperties properties;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Creates the sequence that numbers changes, then backfills one change per existing book while the feed is
+     * empty, so that the feed also describes books registered before it existed.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void initialize() {
+        transactionTemplate.executeWithoutResult(status -> catalogChangeRepository.createSequence());
+        if (catalogChangeRepository.count() > 0) {
+            return;
+        }
+        try {
+            Integer backfilled = transactionTemplate.execute(
+                    status -> catalogChangeRepository.backfill(LocalDateTime.now()));
+            if (backfilled != null && backfilled > 0) {
+                log.info("Backfilled the catalog change feed with {} books", backfilled);
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Another instance backfilled the feed concurrently
+        }
+    }
+
+    /**
+     * Records a change of a book, to be written when the current transaction commits.
+     * A book changed several times in one transaction is recorded once, with its last change.
+     * @param bookId the ID of the book that changed
+     * @param type what happened to the book
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void record(Long bookId, CatalogChange.Type type) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Catalog changes must be recorded inside a transaction");
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, CatalogChange.Type> pending =
+                (Map<Long, CatalogChange.Type>) TransactionSynchronizationManager.getResource(PENDING_CHANGES);
+        if (pending == null) {
+            Map<Long, CatalogChange.Type> changes = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(PENDING_CHANGES, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_CHANGES);
+                }
+            });
+            pending = changes;
+        }
+        pending.remove(bookId);
+        pending.put(bookId, type);
+    }
+
+    /**
+     * Reads the settled changes after a sequence number, oldest first. Reading stops before the first change
+     * younger than the settle time, since a lower number may still be uncommitted while it is that young.
+     * @param since the last sequence number the client has seen, 0 to read the whole feed
+     * @param limit the maximum number of changes
+     * @return the changes and the sequence number to continue from
+     */
+    public BookDto.ChangesResponse changesSince(long since, int limit) {
+        LocalDateTime watermark = LocalDateTime.now().minus(properties.getSettleTime());
+        List<BookDto.Change> rows = catalogChangeRepository.findChangesSince(since, Limit.of(limit + 1));
+        int settled = 0;
+        while (settled < rows.size() && !rows.get(settled).getChangedAt().isAfter(watermark)) {
+            settled++;
+        }
+        boolean hasMore = settled > limit;
+        List<BookDto.Change> changes = rows.subList(0, Math.min(settled, limit));
+        long nextSince = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+        return new BookDto.ChangesResponse(List.copyOf(changes), nextSince, hasMore);
+    }
+
+    private void write(Map<Long, CatalogChange.Type> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        // Pending writes go first, so numbers are taken as close to the commit as possible
+        entityManager.flush();
+        for (Map.Entry<Long, CatalogChange.Type> change : changes.entrySet()) {
+            String type = change.getValue().name();
+            // Stamped when its number is drawn; the statements do not wait, as the transaction already holds the
+            // lock on the book's own row, so no other writer can hold its change row
+            LocalDateTime now = LocalDateTime.now();
+            // Registrations are always new books; other changes replace the book's previous change
+            if (change.getValue() == CatalogChange.Type.REGISTERED
+                    || catalogChangeRepository.replace(change.getKey(), type, now) == 0) {
+                catalogChangeRepository.insert(change.getKey(), type, now);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.book_borrowing_system.idempotency;
+
+import com.example.book_borrowing_system.config.IdempotencyProperties;
+import com.example.book_borrowing_system.model.IdempotencyRecord;
+import com.example.book_borrowing_system.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Remembers the responses of requests sent with an Idempotency-Key.
+ * <p>
+ * The table is the source of truth and is shared by all instances: a key is claimed by inserting its row, so
+ * of two concurrent requests with the same key exactly one is processed. A claim that has no response after the
+ * processing timeout belongs to a request that crashed or was lost, and the next retry of the same request
+ * takes it over instead of being refused until the key expires. A claim is identified by the time it was made,
+ * so a request that outlives the processing timeout cannot store a response for, or free, a claim that a retry
+ * has taken over. Completed responses are also kept in a bounded in-process cache, so retries that hit the same
+ * instance are answered without touching the database.
+ * <p>
+ * The response is stored after the business transaction commits, not inside it. An instance that crashes
+ * between the two leaves a claim without a response, and the retry that takes it over processes the request
+ * again: a borrow by ISBN then takes a second copy. Keys guarantee at most one processing only for requests
+ * whose instance survives them.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final IdempotencyProperties properties;
+    private final Cache<String, IdempotencyRecord> completed;
+
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                            IdempotencyProperties properties) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.properties = properties;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(properties.getMemoryMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    /**
+     * Claims a key for a new request, unless it is already known.
+     * @param key the Idempotency-Key sent by the client
+     * @param fingerprint fingerprint of the request
+     * @return a claim owned by the caller, who must process the request, or the existing record, which has no
+     *         response yet while the original request is still being processed
+     */
+    public Claim claim(String key, String fingerprint) {
+        IdempotencyRecord cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return Claim.existing(cached);
+        }
+        // One retry: the existing row may expire or be released between the failed insert and the read
+        for (int attempt = 0; ; attempt++) {
+            LocalDateTime claimedAt = claimTime();
+            try {
+                idempotencyRecordRepository.claim(key, fingerprint, claimedAt);
+                return Claim.owned(claimedAt);
+            } catch (DataIntegrityViolationException e) {
+                if (attempt > 0) {
+                    throw e;
+                }
+            }
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(key);
+            if (existing.isPresent()) {
+                IdempotencyRecord record = existing.get();
+                if (record.getCreatedAt().isBefore(expiryCutoff())) {
+                    idempotencyRecordRepository.deleteExpired(key, expiryCutoff());
+                    continue;
+                }
+                if (record.getResponseStatus() != null) {
+                    completed.put(key, record);
+                } else if (record.getCreatedAt().isBefore(leaseCutoff()) && idempotencyRecordRepository
+                        .takeOver(key, fingerprint, claimedAt, leaseCutoff()) == 1) {
+                    log.warn("Idempotency key {} had no response after {}; processing its retry", key,
+                            properties.getProcessingTimeout());
+                    return Claim.owned(claimedAt);
+                }
+                return Claim.existing(record);
+            }
+        }
+    }
+
+    /**
+     * Stores the response of a claimed key so retries replay it, unless a retry has taken the claim over.
+     * @param key the claimed key
+     * @param claim the caller's claim
+     * @param fingerprint fingerprint of the request
+     * @param status the response status
+     * @param contentType the response content type, or null
+     * @param body the response body
+     */
+    public void complete(String key, Claim claim, String fingerprint, int status, String contentType, String body) {
+        if (idempotencyRecordRepository.complete(key, claim.claimedAt(), status, contentType, body) == 0) {
+            log.warn("Idempotency key {} was taken over while its request was processed; response not stored", key);
+            return;
+        }
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey(key);
+        record.setFingerprint(fingerprint);
+        record.setResponseStatus(status);
+        record.setContentType(contentType);
+        record.setResponseBody(body);
+        record.setCreatedAt(claim.claimedAt());
+        completed.put(key, record);
+    }
+
+    /**
+     * Frees a claimed key without storing a response, so a retry is processed again.
+     * A claim that a retry has taken over is left to the retry.
+     * @param key the claimed key
+     * @param claim the caller's claim
+     */
+    public void release(String key, Claim claim) {
+        idempotencyRecordRepository.release(key, claim.claimedAt());
+    }
+
+    /**
+     * Deletes keys older than the TTL; the in-process cache expires on its own.
+     */
+    @Scheduled(fixedDelayString = "${library.idempotency.purge-interval:10m}")
+    public void purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(expiryCutoff());
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * Drops the in-process copies, so the next lookups read the table.
+     */
+    public void clearMemory() {
+        completed.invalidateAll();
+    }
+
+    // Claims are matched on their time, so it is kept at the precision the database stores
+    private static LocalDateTime claimTime() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private LocalDateTime leaseCutoff() {
+        return LocalDateTime.now().minus(properties.getProcessingTimeout());
+    }
+
+    private LocalDateTime expiryCutoff() {
+        return LocalDateTime.now().minus(properties.getTtl());
+    }
+
+    /**
+     * The outcome of {@link #claim}: either the caller owns the key since {@code claimedAt}, or the key is
+     * already known and {@code existing} holds its record.
+     */
+    public record Claim(LocalDateTime claimedAt, IdempotencyRecord existing) {
+
+        static Claim owned(LocalDateTime claimedAt) {
+            return new Claim(claimedAt, null);
+        }
+
+        static Claim existing(IdempotencyRecord record) {
+            return new Claim(null, record);
+        }
+
+        public boolean isOwned() {
+            return existing == null;
+        }
+    }
+}
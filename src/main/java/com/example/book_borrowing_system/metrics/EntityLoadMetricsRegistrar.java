@@ -0,0 +1,28 @@
+package com.example.book_borrowing_system.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts every entity Hibernate hydrates against the current request.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityLoadMetricsRegistrar {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final PersistenceMetrics persistenceMetrics;
+
+    @PostConstruct
+    void register() {
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, event -> persistenceMetrics.recordEntityLoad());
+    }
+}
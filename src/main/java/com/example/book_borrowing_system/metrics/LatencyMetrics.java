@@ -0,0 +1,177 @@
+package com.example.book_borrowing_system.metrics;
+
+import com.example.book_borrowing_system.dto.LatencyStats;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Latency histograms, request counts and error counts per REST endpoint, and latency timers for service calls.
+ * Counters are cumulative since startup; rates are averaged over the uptime and scrapers derive windowed rates
+ * from the counters.
+ */
+@Component
+public class LatencyMetrics {
+
+    public static final String BORROW_BOOK = "BookService.borrowBook";
+    public static final String RETURN_BOOK = "BookService.returnBook";
+    public static final String REGISTER_BOOK = "BookService.registerBook";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final long startedNanos = System.nanoTime();
+    private final Map<String, EndpointTimer> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> services = new ConcurrentHashMap<>();
+
+    /**
+     * Records one completed HTTP request.
+     * @param endpoint the HTTP method and route template
+     * @param nanos the time spent handling the request
+     * @param status the response status
+     * @param exceptionType the simple name of the exception handled for the request, or null
+     */
+    public void recordRequest(String endpoint, long nanos, int status, String exceptionType) {
+        EndpointTimer timer = endpoints.computeIfAbsent(endpoint, e -> new EndpointTimer());
+        timer.histogram.record(nanos);
+        if (status >= 400) {
+            timer.errors.increment();
+        }
+        if (exceptionType != null) {
+            timer.exceptions.computeIfAbsent(exceptionType, t -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Records one service call, so time spent in the transaction can be told apart from request handling.
+     * @param name the name of the timer, such as {@link #BORROW_BOOK}
+     * @param nanos the time spent in the call, including commit
+     */
+    public void recordService(String name, long nanos) {
+        services.computeIfAbsent(name, n -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Runs a service call and records its latency, whether it returns or throws.
+     * @param name the name of the timer, such as {@link #BORROW_BOOK}
+     * @param call the service call
+     * @return the result of the call
+     */
+    public <T> T time(String name, Supplier<T> call) {
+        long started = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            recordService(name, System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Returns the collected latency metrics.
+     * @return per-endpoint and per-service latency distributions, counts and rates
+     */
+    public LatencyStats snapshot() {
+        double uptimeSeconds = Math.max(1, Duration.ofNanos(System.nanoTime() - startedNanos).toSeconds());
+
+        List<LatencyStats.EndpointLatency> endpointStats = new ArrayList<>();
+        endpoints.forEach((endpoint, timer) -> {
+            long requests = timer.histogram.getCount();
+            long errors = timer.errors.sum();
+            endpointStats.add(new LatencyStats.EndpointLatency(endpoint, requests, requests / uptimeSeconds,
+                    errors, requests == 0 ? 0 : (double) errors / requests,
+                    exceptionCounts(timer), percentiles(timer.histogram)));
+        });
+        endpointStats.sort(Comparator.comparing(LatencyStats.EndpointLatency::getEndpoint));
+
+        List<LatencyStats.TimerLatency> serviceStats = new ArrayList<>();
+        services.forEach((name, histogram) ->
+                serviceStats.add(new LatencyStats.TimerLatency(name, histogram.getCount(), percentiles(histogram))));
+        serviceStats.sort(Comparator.comparing(LatencyStats.TimerLatency::getName));
+
+        return new LatencyStats(endpointStats, serviceStats);
+    }
+
+    /**
+     * Renders the metrics in the Prometheus text exposition format.
+     * @return the metrics as summaries with quantiles in seconds, plus error counters
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder();
+        out.append("# HELP http_server_requests_seconds Latency of HTTP requests by endpoint\n");
+        out.append("# TYPE http_server_requests_seconds summary\n");
+        new TreeMap<>(endpoints).forEach((endpoint, timer) ->
+                appendSummary(out, "http_server_requests_seconds", endpointLabels(endpoint), timer.histogram));
+
+        out.append("# HELP http_server_errors_total HTTP responses with a 4xx or 5xx status by endpoint\n");
+        out.append("# TYPE http_server_errors_total counter\n");
+        new TreeMap<>(endpoints).forEach((endpoint, timer) -> out.append("http_server_errors_total{")
+                .append(endpointLabels(endpoint)).append("} ").append(timer.errors.sum()).append('\n'));
+
+        out.append("# HELP http_server_exceptions_total Exceptions handled by GlobalExceptionHandler by endpoint\n");
+        out.append("# TYPE http_server_exceptions_total counter\n");
+        new TreeMap<>(endpoints).forEach((endpoint, timer) -> exceptionCounts(timer).forEach((type, count) ->
+                out.append("http_server_exceptions_total{").append(endpointLabels(endpoint))
+                        .append(",exception=\"").append(type).append("\"} ").append(count).append('\n')));
+
+        out.append("# HELP service_method_seconds Latency of service calls including their transaction\n");
+        out.append("# TYPE service_method_seconds summary\n");
+        new TreeMap<>(services).forEach((name, histogram) ->
+                appendSummary(out, "service_method_seconds", "method=\"" + escape(name) + "\"", histogram));
+        return out.toString();
+    }
+
+    private static void appendSummary(StringBuilder out, String metric, String labels, LatencyHistogram histogram) {
+        for (double quantile : QUANTILES) {
+            out.append(metric).append('{').append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.quantileMicros(quantile))).append('\n');
+        }
+        out.append(metric).append("_count{").append(labels).append("} ").append(histogram.getCount()).append('\n');
+        out.append(metric).append("_sum{").append(labels).append("} ")
+                .append(seconds(histogram.getTotalMicros())).append('\n');
+    }
+
+    private static String endpointLabels(String endpoint) {
+        int separator = endpoint.indexOf(' ');
+        return "method=\"" + escape(endpoint.substring(0, separator)) + "\",uri=\""
+                + escape(endpoint.substring(separator + 1)) + "\"";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String seconds(long micros) {
+        return String.format(Locale.ROOT, "%.6f", micros / 1_000_000.0);
+    }
+
+    private static Map<String, Long> exceptionCounts(EndpointTimer timer) {
+        Map<String, Long> counts = new TreeMap<>();
+        timer.exceptions.forEach((type, count) -> counts.put(type, count.sum()));
+        return counts;
+    }
+
+    private static LatencyStats.Percentiles percentiles(LatencyHistogram histogram) {
+        long count = histogram.getCount();
+        return new LatencyStats.Percentiles(
+                count == 0 ? 0 : histogram.getTotalMicros() / 1_000.0 / count,
+                histogram.quantileMicros(0.5) / 1_000.0,
+                histogram.quantileMicros(0.9) / 1_000.0,
+                histogram.quantileMicros(0.99) / 1_000.0,
+                histogram.quantileMicros(0.999) / 1_000.0,
+                histogram.getMaxMicros() / 1_000.0);
+    }
+
+    private static class EndpointTimer {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final Map<String, LongAdder> exceptions = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.book_borrowing_system.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.io.IOException;
+
+/**
+ * Times every HTTP request and attributes it to its route template, response status and handled exception.
+ * Streaming responses are timed until the handler returns, not until the last byte is written.
+ */
+@Component
+@RequiredArgsConstructor
+public class LatencyMetricsFilter extends OncePerRequestFilter {
+
+    private final LatencyMetrics latencyMetrics;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long started = System.nanoTime();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        Object exception = null;
+        try {
+            chain.doFilter(request, response);
+            status = response.getStatus();
+            // Set by the DispatcherServlet when an @ExceptionHandler resolved the exception
+            exception = request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE);
+        } catch (ServletException | IOException | RuntimeException e) {
+            exception = e;
+            throw e;
+        } finally {
+            latencyMetrics.recordRequest(PersistenceMetricsFilter.endpointOf(request), System.nanoTime() - started,
+                    status, exception != null ? exception.getClass().getSimpleName() : null);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.book_borrowing_system.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Wraps the application DataSource in thin JDBC proxies that time connection acquisition and statement execution,
+ * feeding {@link PersistenceMetrics}. Nothing is logged per statement, and bound parameters are never captured:
+ * parameter calls go straight to the driver and slow statements are reported with their placeholders.
+ */
+@Component
+public class MeteredDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final Set<String> EXECUTE_METHODS =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final Set<String> BATCH_METHODS = Set.of("executeBatch", "executeLargeBatch");
+
+    // Resolved lazily so the metrics and their properties are created after every post processor is registered
+    private final ObjectProvider<PersistenceMetrics> metricsProvider;
+
+    public MeteredDataSourcePostProcessor(ObjectProvider<PersistenceMetrics> metricsProvider) {
+        this.metricsProvider = metricsProvider;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())) {
+            return proxy(DataSource.class, new DataSourceHandler(dataSource, metricsProvider.getObject()));
+        }
+        return bean;
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record DataSourceHandler(DataSource target, PersistenceMetrics metrics) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().equals("getConnection")) {
+                return MeteredDataSourcePostProcessor.invoke(target, method, args);
+            }
+            long started = System.nanoTime();
+            Connection connection = (Connection) MeteredDataSourcePostProcessor.invoke(target, method, args);
+            metrics.recordConnectionAcquisition(System.nanoTime() - started);
+            return proxy(Connection.class, new ConnectionHandler(connection, metrics));
+        }
+    }
+
+    private record ConnectionHandler(Connection target, PersistenceMetrics metrics) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = MeteredDataSourcePostProcessor.invoke(target, method, args);
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, new StatementHandler(statement, sql, metrics));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, new StatementHandler(statement, sql, metrics));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, new StatementHandler(statement, null, metrics));
+            }
+            return result;
+        }
+    }
+
+    private record StatementHandler(Statement target, String preparedSql, PersistenceMetrics metrics)
+            implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!EXECUTE_METHODS.contains(name)) {
+                return MeteredDataSourcePostProcessor.invoke(target, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            long started = System.nanoTime();
+            try {
+                return MeteredDataSourcePostProcessor.invoke(target, method, args);
+            } finally {
+                metrics.recordStatement(sql, BATCH_METHODS.contains(name), System.nanoTime() - started);
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.book_borrowing_system.metrics;
+
+import com.example.book_borrowing_system.config.PersistenceMetricsProperties;
+import com.example.book_borrowing_system.dto.PersistenceStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Aggregates persistence activity per HTTP request without logging individual statements.
+ * Statements and entity loads are counted against the request running on the current thread; statements that
+ * exceed the slow threshold and statements repeated within one request are kept in small bounded logs.
+ * A JDBC batch counts as one statement and is never taken for a repeat: bulk inserts run the same SQL in
+ * every batch by design. Slow statements are kept with their placeholders, so no bound values are exposed.
+ */
+@Component
+@RequiredArgsConstructor
+public class PersistenceMetrics {
+
+    private static final int MAX_SQL_LENGTH = 2000;
+
+    private final PersistenceMetricsProperties properties;
+
+    private final ThreadLocal<RequestActivity> currentRequest = new ThreadLocal<>();
+    private final Map<String, EndpointActivity> endpoints = new ConcurrentHashMap<>();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder slowStatementCount = new LongAdder();
+    private final LongAdder connectionAcquisitions = new LongAdder();
+    private final LongAdder connectionAcquisitionNanos = new LongAdder();
+    private final AtomicLong maxConnectionAcquisitionNanos = new AtomicLong();
+    private final Deque<PersistenceStats.SlowStatement> slowStatements = new ArrayDeque<>();
+    private final Deque<PersistenceStats.NPlusOneSuspect> nPlusOneSuspects = new ArrayDeque<>();
+    // Guards both logs; a lock rather than a monitor so waiting request threads never pin a virtual thread carrier
+    private final Lock logLock = new ReentrantLock();
+
+    /**
+     * Starts counting persistence activity for the request handled by the current thread.
+     * @param requestLine the HTTP method and path, used to attribute slow statements
+     */
+    public void beginRequest(String requestLine) {
+        currentRequest.set(new RequestActivity(requestLine));
+    }
+
+    /**
+     * Stops counting for the current thread and adds the request's activity to its endpoint.
+     * @param endpoint the HTTP method and route template of the request
+     */
+    public void endRequest(String endpoint) {
+        RequestActivity request = currentRequest.get();
+        currentRequest.remove();
+        if (request == null) {
+            return;
+        }
+
+        boolean suspected = false;
+        for (Map.Entry<String, Integer> statement : request.executionsBySql.entrySet()) {
+            if (statement.getValue() >= properties.getNPlusOneThreshold()) {
+                suspected = true;
+                record(nPlusOneSuspects, new PersistenceStats.NPlusOneSuspect(
+                        endpoint, truncate(statement.getKey()), statement.getValue(), Instant.now()));
+            }
+        }
+        endpoints.computeIfAbsent(endpoint, e -> new EndpointActivity()).add(request, suspected);
+    }
+
+    /**
+     * Records one executed statement or JDBC batch.
+     * @param sql the SQL as prepared, with placeholders
+     * @param batch whether a JDBC batch was executed, which is not counted towards N+1 suspicion
+     * @param nanos the execution time
+     */
+    void recordStatement(String sql, boolean batch, long nanos) {
+        statements.increment();
+        RequestActivity request = currentRequest.get();
+        if (request != null && sql != null) {
+            request.statements++;
+            if (!batch) {
+                request.executionsBySql.merge(sql, 1, Integer::sum);
+            }
+        }
+
+        if (nanos >= properties.getSlowStatementThreshold().toNanos()) {
+            slowStatementCount.increment();
+            record(slowStatements, new PersistenceStats.SlowStatement(
+                    request != null ? request.requestLine : null, truncate(sql), nanos / 1_000_000.0, Instant.now()));
+        }
+    }
+
+    /**
+     * Records one entity hydrated by Hibernate.
+     */
+    void recordEntityLoad() {
+        RequestActivity request = currentRequest.get();
+        if (request != null) {
+            request.entityLoads++;
+        }
+    }
+
+    /**
+     * Records the time spent waiting for a pooled connection.
+     * @param nanos the acquisition time
+     */
+    void recordConnectionAcquisition(long nanos) {
+        connectionAcquisitions.increment();
+        connectionAcquisitionNanos.add(nanos);
+        maxConnectionAcquisitionNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Returns the collected metrics.
+     * @return a point-in-time copy of the counters and recent slow statements and N+1 suspects
+     */
+    public PersistenceStats snapshot() {
+        long acquisitions = connectionAcquisitions.sum();
+        PersistenceStats.ConnectionStats connections = new PersistenceStats.ConnectionStats(
+                acquisitions,
+                acquisitions == 0 ? 0 : connectionAcquisitionNanos.sum() / 1_000_000.0 / acquisitions,
+                maxConnectionAcquisitionNanos.get() / 1_000_000.0);
+
+        List<PersistenceStats.EndpointStats> endpointStats = new ArrayList<>();
+        endpoints.forEach((endpoint, activity) -> endpointStats.add(activity.toStats(endpoint)));
+        endpointStats.sort(Comparator.comparing(PersistenceStats.EndpointStats::getEndpoint));
+
+        return new PersistenceStats(statements.sum(), slowStatementCount.sum(), connections, endpointStats,
+                copy(slowStatements), copy(nPlusOneSuspects));
+    }
+
+    private <T> void record(Deque<T> log, T event) {
+        logLock.lock();
+        try {
+            log.addFirst(event);
+            while (log.size() > properties.getMaxRecordedEvents()) {
+                log.removeLast();
+            }
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    private <T> List<T> copy(Deque<T> log) {
+        logLock.lock();
+        try {
+            return new ArrayList<>(log);
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    private static String truncate(String sql) {
+        if (sql == null || sql.length() <= MAX_SQL_LENGTH) {
+            return sql;
+        }
+        return sql.substring(0, MAX_SQL_LENGTH) + "...";
+    }
+
+    private static class RequestActivity {
+        private final String requestLine;
+        private final Map<String, Integer> executionsBySql = new HashMap<>();
+        private int statements;
+        private int entityLoads;
+
+        private RequestActivity(String requestLine) {
+            this.requestLine = requestLine;
+        }
+    }
+
+    private static class EndpointActivity {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final AtomicLong maxStatements = new AtomicLong();
+        private final LongAdder entityLoads = new LongAdder();
+        private final AtomicLong maxEntityLoads = new AtomicLong();
+        private final LongAdder suspectedNPlusOne = new LongAdder();
+
+        private void add(RequestActivity request, boolean suspectedNPlusOneRequest) {
+            requests.increment();
+            statements.add(request.statements);
+            maxStatements.accumulateAndGet(request.statements, Math::max);
+            entityLoads.add(request.entityLoads);
+            maxEntityLoads.accumulateAndGet(request.entityLoads, Math::max);
+            if (suspectedNPlusOneRequest) {
+                suspectedNPlusOne.increment();
+            }
+        }
+
+        private PersistenceStats.EndpointStats toStats(String endpoint) {
+            long count = requests.sum();
+            return new PersistenceStats.EndpointStats(endpoint, count,
+                    count == 0 ? 0 : (double) statements.sum() / count, maxStatements.get(),
+                    count == 0 ? 0 : (double) entityLoads.sum() / count, maxEntityLoads.get(),
+                    suspectedNPlusOne.sum());
+        }
+    }
+}
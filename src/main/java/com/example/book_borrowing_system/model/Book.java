@@ -6,10 +6,12 @@ import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "book")
+@Table(name = "book", indexes = @Index(name = "idx_book_isbn_available", columnList = "isbn, is_available"))
 public class Book {
+    // Pooled sequence allocation lets Hibernate batch inserts, which IDENTITY columns prevent
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "ISBN is required")
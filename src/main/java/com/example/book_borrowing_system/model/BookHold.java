@@ -0,0 +1,60 @@
+package com.example.book_borrowing_system.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * A borrower's place in the queue for a title. Holds wait in ID order; a returned copy is handed to the oldest
+ * waiting hold, which then keeps the copy until it is picked up or its pickup window expires.
+ * <p>
+ * The indexes carry the names used in init.sql, which creates them as partial indexes over the open statuses
+ * and makes {@code ux_book_hold_open} unique. A schema generated from this entity gets plain indexes instead,
+ * so the one open hold per borrower and title is enforced by {@code HoldService.placeHold} either way.
+ */
+@Data
+@Entity
+@Table(name = "book_hold", indexes = {
+        @Index(name = "idx_book_hold_queue", columnList = "isbn, status, id"),
+        @Index(name = "idx_book_hold_ready", columnList = "status, expires_at"),
+        @Index(name = "ux_book_hold_open", columnList = "borrower_id, isbn")
+})
+public class BookHold {
+
+    public enum Status {
+        WAITING, READY, FULFILLED, CANCELLED, EXPIRED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "borrower_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Borrower borrower;
+
+    @Column(length = 17, nullable = false)
+    private String isbn;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private Status status;
+
+    // The copy set aside for pickup; only set once the hold is ready
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "placed_at", nullable = false)
+    private LocalDateTime placedAt;
+
+    @Column(name = "ready_at")
+    private LocalDateTime readyAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,37 @@
+package com.example.book_borrowing_system.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Latest change of a book in the catalog change feed. The feed is compacted by key: a new change of a book
+ * replaces its previous one and takes a new sequence number, so the table holds one row per changed book.
+ * Sequence numbers come from {@link #SEQUENCE}, which the feed creates and reads in native statements.
+ */
+@Data
+@Entity
+@Table(name = "catalog_change", indexes = @Index(name = "ux_catalog_change_seq", columnList = "seq", unique = true))
+public class CatalogChange {
+
+    public static final String SEQUENCE = "catalog_change_seq";
+
+    public enum Type {
+        REGISTERED, BORROWED, RETURNED, RELEASED
+    }
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(nullable = false)
+    private long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", length = 16, nullable = false)
+    private Type type;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,25 @@
+package com.example.book_borrowing_system.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Version of a catalog, shared by all instances so any of them can answer a conditional GET.
+ * One row per catalog; every committed write to the catalog bumps it.
+ */
+@Data
+@Entity
+@Table(name = "catalog_version")
+public class CatalogVersion {
+
+    @Id
+    @Column(length = 16)
+    private String catalog;
+
+    @Column(nullable = false)
+    private long version;
+
+    // Epoch milliseconds of the last bump, served as Last-Modified
+    @Column(name = "changed_at", nullable = false)
+    private long changedAt;
+}
@@ -0,0 +1,38 @@
+package com.example.book_borrowing_system.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response stored for an Idempotency-Key, so a retried request is answered without being processed again.
+ */
+@Data
+@Entity
+@Table(name = "idempotency_record", indexes = @Index(name = "idx_idempotency_record_created", columnList = "created_at"))
+public class IdempotencyRecord {
+    public static final int MAX_BODY_LENGTH = 16384;
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    // SHA-256 of the method, path and body, so a key reused for a different request is detected
+    @Column(length = 64, nullable = false)
+    private String fingerprint;
+
+    // Null while the original request is still being processed
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "response_body", length = MAX_BODY_LENGTH)
+    private String responseBody;
+
+    // When the key was claimed; renewed when a retry takes over a claim whose request was lost
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,19 +1,118 @@
 package com.example.book_borrowing_system.repository;
 
+import com.example.book_borrowing_system.dto.BookBorrowDto;
 import com.example.book_borrowing_system.model.BookBorrow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookBorrowRepository extends JpaRepository<BookBorrow, Long> {
+    // Return and borrow details only need the borrower and book IDs, which are read from the foreign keys
     @Query("SELECT bb FROM BookBorrow bb WHERE bb.book.id = :bookId AND bb.returnDate IS NULL")
     Optional<BookBorrow> findActiveBookBorrow(@Param("bookId") Long bookId);
 
     List<BookBorrow> findByBorrowerIdAndReturnDateIsNull(Long borrowerId);
+
     List<BookBorrow> findByBookId(long bookId);
 
-}
+    // Open borrows of the given books, locked so a concurrent return of the same book waits and then skips it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT bb FROM BookBorrow bb WHERE bb.book.id IN :bookIds AND bb.returnDate IS NULL ORDER BY bb.id")
+    List<BookBorrow> lockActiveByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    // Opens one borrow per book in a single INSERT ... SELECT, which IDENTITY keys would otherwise prevent batching
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO BookBorrow (borrower, book, borrowDate) " +
+            "SELECT br, b, :borrowDate FROM Borrower br, Book b WHERE br.id = :borrowerId AND b.id IN :bookIds")
+    int insertAll(@Param("borrowerId") Long borrowerId, @Param("bookIds") Collection<Long> bookIds,
+                  @Param("borrowDate") LocalDateTime borrowDate);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BookBorrow bb SET bb.returnDate = :returnDate WHERE bb.id IN :borrowIds AND bb.returnDate IS NULL")
+    int markAllReturned(@Param("borrowIds") Collection<Long> borrowIds, @Param("returnDate") LocalDateTime returnDate);
+
+    // Closes the borrow only if it is still open; returns 0 when it was returned concurrently
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BookBorrow bb SET bb.returnDate = :returnDate WHERE bb.id = :borrowId AND bb.returnDate IS NULL")
+    int markReturned(@Param("borrowId") Long borrowId, @Param("returnDate") LocalDateTime returnDate);
+
+    @Query("SELECT new com.example.book_borrowing_system.dto.BookBorrowDto$Summary(" +
+            "bb.id, bb.book.id, br.id, br.name, br.email, bb.borrowDate, bb.returnDate) " +
+            "FROM BookBorrow bb JOIN bb.borrower br WHERE bb.book.id IN :bookIds AND bb.returnDate IS NULL")
+    List<BookBorrowDto.Summary> findActiveSummariesByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT new com.example.book_borrowing_system.dto.BookBorrowDto$Summary(" +
+            "bb.id, bb.book.id, br.id, br.name, br.email, bb.borrowDate, bb.returnDate) " +
+            "FROM BookBorrow bb JOIN bb.borrower br WHERE bb.book.id IN :bookIds ORDER BY bb.book.id, bb.id")
+    List<BookBorrowDto.Summary> findSummariesByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    // A borrower's open loans; served by idx_book_borrow_active_borrower
+    @Query("SELECT new com.example.book_borrowing_system.dto.BookBorrowDto$LoanSummary(" +
+            "bb.id, b.id, b.isbn, b.title, b.author, bb.borrowDate, bb.returnDate) " +
+            "FROM BookBorrow bb JOIN bb.book b " +
+            "WHERE bb.borrower.id = :borrowerId AND bb.returnDate IS NULL ORDER BY bb.borrowDate, bb.id")
+    List<BookBorrowDto.LoanSummary> findActiveLoansByBorrowerId(@Param("borrowerId") Long borrowerId);
 
+    // A borrower's loans, newest first, keyed on ID; served by idx_book_borrow_borrower
+    @Query("SELECT new com.example.book_borrowing_system.dto.BookBorrowDto$LoanSummary(" +
+            "bb.id, b.id, b.isbn, b.title, b.author, bb.borrowDate, bb.returnDate) " +
+            "FROM BookBorrow bb JOIN bb.book b " +
+            "WHERE bb.borrower.id = :borrowerId AND bb.id < :beforeId ORDER BY bb.id DESC")
+    List<BookBorrowDto.LoanSummary> findLoansByBorrowerIdBefore(@Param("borrowerId") Long borrowerId,
+                                                                @Param("beforeId") Long beforeId,
+                                                                Limit limit);
+
+    // Overdue loans, oldest first; both queries are range scans of idx_book_borrow_active_due
+    @Query("SELECT new com.example.book_borrowing_system.dto.BookBorrowDto$Summary(" +
+            "bb.id, bb.book.id, br.id, br.name, br.email, bb.borrowDate, bb.returnDate) " +
+            "FROM BookBorrow bb JOIN bb.borrower br " +
+            "WHERE bb.returnDate IS NULL AND bb.borrowDate < :cutoff ORDER BY bb.borrowDate, bb.id")
+    List<BookBorrowDto.Summary> findOverdue(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Query("SELECT new com.example.book_borrowing_system.dto.BookBorrowDto$Summary(" +
+            "bb.id, bb.book.id, br.id, br.name, br.email, bb.borrowDate, bb.returnDate) " +
+            "FROM BookBorrow bb JOIN bb.borrower br " +
+            "WHERE bb.returnDate IS NULL AND bb.borrowDate < :cutoff " +
+            "AND (bb.borrowDate > :afterDate OR (bb.borrowDate = :afterDate AND bb.id > :afterId)) " +
+            "ORDER BY bb.borrowDate, bb.id")
+    List<BookBorrowDto.Summary> findOverdueAfter(@Param("cutoff") LocalDateTime cutoff,
+                                                 @Param("afterDate") LocalDateTime afterDate,
+                                                 @Param("afterId") Long afterId,
+                                                 Limit limit);
+
+    // Borrowers with overdue loans in ID order; walks idx_book_borrow_active_borrower
+    @Query("SELECT new com.example.book_borrowing_system.dto.BookBorrowDto$OverdueBorrowerSummary(" +
+            "br.id, br.name, br.email, COUNT(bb), MIN(bb.borrowDate)) " +
+            "FROM BookBorrow bb JOIN bb.borrower br " +
+            "WHERE bb.returnDate IS NULL AND bb.borrowDate < :cutoff AND br.id > :afterId " +
+            "GROUP BY br.id, br.name, br.email ORDER BY br.id")
+    List<BookBorrowDto.OverdueBorrowerSummary> findOverdueBorrowers(@Param("cutoff") LocalDateTime cutoff,
+                                                                   @Param("afterId") Long afterId,
+                                                                   Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.book_borrowing_system.dto.BookBorrowDto$Summary(" +
+            "bb.id, bb.book.id, br.id, br.name, br.email, bb.borrowDate, bb.returnDate) " +
+            "FROM BookBorrow bb JOIN bb.borrower br WHERE bb.returnDate IS NULL ORDER BY bb.book.id, bb.id")
+    Stream<BookBorrowDto.Summary> streamActiveSummariesOrderByBookId();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.book_borrowing_system.dto.BookBorrowDto$Summary(" +
+            "bb.id, bb.book.id, br.id, br.name, br.email, bb.borrowDate, bb.returnDate) " +
+            "FROM BookBorrow bb JOIN bb.borrower br ORDER BY bb.book.id, bb.id")
+    Stream<BookBorrowDto.Summary> streamAllSummariesOrderByBookId();
+
+}
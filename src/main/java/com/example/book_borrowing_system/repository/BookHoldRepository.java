@@ -0,0 +1,77 @@
+package com.example.book_borrowing_system.repository;
+
+import com.example.book_borrowing_system.model.BookHold;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookHoldRepository extends JpaRepository<BookHold, Long> {
+
+    // Oldest waiting holds for the title of a copy; served by idx_book_hold_queue
+    @Query("SELECT h.id FROM BookHold h " +
+            "WHERE h.isbn = (SELECT b.isbn FROM Book b WHERE b.id = :bookId) " +
+            "AND h.status = com.example.book_borrowing_system.model.BookHold$Status.WAITING ORDER BY h.id")
+    List<Long> findWaitingForCopy(@Param("bookId") Long bookId, Limit limit);
+
+    // Sets a copy aside for a waiting hold; returns 0 when another return promoted the hold first
+    @Modifying
+    @Query("UPDATE BookHold h SET h.status = com.example.book_borrowing_system.model.BookHold$Status.READY, " +
+            "h.bookId = :bookId, h.readyAt = :readyAt, h.expiresAt = :expiresAt " +
+            "WHERE h.id = :holdId AND h.status = com.example.book_borrowing_system.model.BookHold$Status.WAITING")
+    int promote(@Param("holdId") Long holdId, @Param("bookId") Long bookId,
+                @Param("readyAt") LocalDateTime readyAt, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Picks up a copy held for the borrower; returns 0 when there is no such hold or its window has passed
+    @Modifying
+    @Query("UPDATE BookHold h SET h.status = com.example.book_borrowing_system.model.BookHold$Status.FULFILLED " +
+            "WHERE h.bookId = :bookId AND h.borrower.id = :borrowerId AND h.expiresAt > :now " +
+            "AND h.status = com.example.book_borrowing_system.model.BookHold$Status.READY")
+    int fulfill(@Param("borrowerId") Long borrowerId, @Param("bookId") Long bookId, @Param("now") LocalDateTime now);
+
+    // Copies among the given books that are held for the borrower and still within their pickup window
+    @Query("SELECT h.bookId FROM BookHold h " +
+            "WHERE h.bookId IN :bookIds AND h.borrower.id = :borrowerId AND h.expiresAt > :now " +
+            "AND h.status = com.example.book_borrowing_system.model.BookHold$Status.READY")
+    List<Long> findReadyCopies(@Param("borrowerId") Long borrowerId, @Param("bookIds") Collection<Long> bookIds,
+                               @Param("now") LocalDateTime now);
+
+    // Copies among the given books whose title has someone waiting
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :bookIds AND EXISTS (" +
+            "SELECT h.id FROM BookHold h WHERE h.isbn = b.isbn " +
+            "AND h.status = com.example.book_borrowing_system.model.BookHold$Status.WAITING)")
+    List<Long> findCopiesWithWaitingHolds(@Param("bookIds") Collection<Long> bookIds);
+
+    // Moves a hold on only if nobody else changed its status since it was read
+    @Modifying
+    @Query("UPDATE BookHold h SET h.status = :to WHERE h.id = :holdId AND h.status = :from")
+    int transition(@Param("holdId") Long holdId, @Param("from") BookHold.Status from, @Param("to") BookHold.Status to);
+
+    @Query("SELECT h.bookId FROM BookHold h " +
+            "WHERE h.borrower.id = :borrowerId AND h.isbn = :isbn AND h.expiresAt > :now " +
+            "AND h.status = com.example.book_borrowing_system.model.BookHold$Status.READY")
+    Optional<Long> findReadyCopy(@Param("borrowerId") Long borrowerId, @Param("isbn") String isbn,
+                                 @Param("now") LocalDateTime now);
+
+    @Query("SELECT COUNT(h) > 0 FROM BookHold h " +
+            "WHERE h.borrower.id = :borrowerId AND h.isbn = :isbn " +
+            "AND h.status IN (com.example.book_borrowing_system.model.BookHold$Status.WAITING, " +
+            "com.example.book_borrowing_system.model.BookHold$Status.READY)")
+    boolean existsOpenHold(@Param("borrowerId") Long borrowerId, @Param("isbn") String isbn);
+
+    @Query("SELECT COUNT(h) FROM BookHold h WHERE h.isbn = :isbn AND h.id < :holdId " +
+            "AND h.status = com.example.book_borrowing_system.model.BookHold$Status.WAITING")
+    long countWaitingAhead(@Param("isbn") String isbn, @Param("holdId") Long holdId);
+
+    // Ready holds whose pickup window has passed; served by idx_book_hold_ready
+    @Query("SELECT h FROM BookHold h " +
+            "WHERE h.status = com.example.book_borrowing_system.model.BookHold$Status.READY AND h.expiresAt <= :now " +
+            "ORDER BY h.expiresAt")
+    List<BookHold> findExpired(@Param("now") LocalDateTime now, Limit limit);
+}
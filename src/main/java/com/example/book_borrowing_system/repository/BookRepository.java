@@ -1,13 +1,110 @@
 package com.example.book_borrowing_system.repository;
 
+import com.example.book_borrowing_system.dto.BookDto;
 import com.example.book_borrowing_system.model.Book;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("SELECT b FROM Book b WHERE b.isbn = :isbn")
     List<Book> findByIsbn(@Param("isbn") String isbn);
+
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT b FROM Book b WHERE b.isbn IN :isbns")
+    List<Book> findByIsbnIn(@Param("isbns") Collection<String> isbns);
+
+    // Locks one free copy, skipping copies other transactions are already claiming (FOR UPDATE SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT b FROM Book b WHERE b.isbn = :isbn AND b.isAvailable = true ORDER BY b.id")
+    List<Book> lockAvailableCopies(@Param("isbn") String isbn, Limit limit);
+
+    // Locks the free copies among the given books, skipping copies other transactions are claiming
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT b FROM Book b WHERE b.id IN :bookIds AND b.isAvailable = true ORDER BY b.id")
+    List<Book> lockAvailableByIds(@Param("bookIds") Collection<Long> bookIds);
+
+    // Locks the first copy of a title, which stands for the title: placing a hold and handing a copy to the
+    // queue both take it, so neither can miss the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.id FROM Book b WHERE b.id = (SELECT MIN(c.id) FROM Book c WHERE c.isbn = :isbn)")
+    Optional<Long> lockTitle(@Param("isbn") String isbn);
+
+    // Locks the titles of the given copies in ID order, as lockTitle does for one title
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.id FROM Book b WHERE b.id IN (SELECT MIN(c.id) FROM Book c WHERE c.isbn IN " +
+            "(SELECT d.isbn FROM Book d WHERE d.id IN :bookIds) GROUP BY c.isbn) ORDER BY b.id")
+    List<Long> lockTitlesOf(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :bookIds")
+    List<Long> findExistingIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT new com.example.book_borrowing_system.dto.BookDto$Availability(" +
+            "b.isbn, COUNT(b), SUM(CASE WHEN b.isAvailable = true THEN 1 ELSE 0 END)) " +
+            "FROM Book b WHERE b.isbn = :isbn GROUP BY b.isbn")
+    Optional<BookDto.Availability> findAvailabilityByIsbn(@Param("isbn") String isbn);
+
+    @Query("SELECT MAX(b.id) FROM Book b")
+    Long findMaxId();
+
+    @Query("SELECT new com.example.book_borrowing_system.dto.BookDto$CopyIsbn(b.id, b.isbn) " +
+            "FROM Book b WHERE b.id IN :ids")
+    List<BookDto.CopyIsbn> findIsbnsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT new com.example.book_borrowing_system.dto.BookDto$CatalogEntry(b.isbn, b.title, b.author) " +
+            "FROM Book b WHERE b.id > :fromId AND b.id <= :toId")
+    List<BookDto.CatalogEntry> findCatalogEntriesInRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Claims the book in a single statement; returns 0 when it is missing or already borrowed
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.isAvailable = false WHERE b.id = :bookId AND b.isAvailable = true")
+    int claimIfAvailable(@Param("bookId") Long bookId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.isAvailable = true WHERE b.id = :bookId")
+    int markAvailable(@Param("bookId") Long bookId);
+
+    // Batch counterparts of the above; callers lock the rows first, so every ID is known to qualify
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.isAvailable = false WHERE b.id IN :bookIds")
+    int claimAll(@Param("bookIds") Collection<Long> bookIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.isAvailable = true WHERE b.id IN :bookIds")
+    int markAllAvailable(@Param("bookIds") Collection<Long> bookIds);
+
+    // Copies with the borrower and date of their active borrow, read without hydrating entities
+    @Query("SELECT new com.example.book_borrowing_system.dto.BookDto$StatusSummary(" +
+            "b.id, b.isbn, b.title, b.author, b.isAvailable, bb.borrower.id, bb.borrowDate) " +
+            "FROM Book b LEFT JOIN BookBorrow bb ON bb.book = b AND bb.returnDate IS NULL " +
+            "WHERE b.id > :afterId ORDER BY b.id")
+    List<BookDto.StatusSummary> findStatusesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new com.example.book_borrowing_system.dto.BookDto$StatusSummary(" +
+            "b.id, b.isbn, b.title, b.author, b.isAvailable, bb.borrower.id, bb.borrowDate) " +
+            "FROM Book b LEFT JOIN BookBorrow bb ON bb.book = b AND bb.returnDate IS NULL " +
+            "WHERE b.isbn = :isbn ORDER BY b.id")
+    List<BookDto.StatusSummary> findStatusesByIsbn(@Param("isbn") String isbn);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Book b ORDER BY b.id")
+    Stream<Book> streamAllOrderById();
     
 }
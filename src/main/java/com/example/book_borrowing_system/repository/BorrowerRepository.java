@@ -1,11 +1,34 @@
 package com.example.book_borrowing_system.repository;
 
+import com.example.book_borrowing_system.dto.BorrowerDto;
 import com.example.book_borrowing_system.model.Borrower;
+import org.springframework.data.domain.Limit;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
 public interface BorrowerRepository extends JpaRepository<Borrower, Long> {
     Optional<Borrower> findByEmail(String email);
+
+    // Locks a borrower's row so that checks and inserts made on their behalf do not interleave
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.id FROM Borrower b WHERE b.id = :id")
+    Optional<Long> lockById(@Param("id") Long id);
+
+    List<Borrower> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT b.email FROM Borrower b WHERE b.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT new com.example.book_borrowing_system.dto.BorrowerDto$StatusResponse(b.id, b.name, b.email, " +
+            "(SELECT COUNT(bb) FROM BookBorrow bb WHERE bb.borrower = b AND bb.returnDate IS NULL)) " +
+            "FROM Borrower b WHERE b.id > :afterId ORDER BY b.id")
+    List<BorrowerDto.StatusResponse> findStatusesAfter(@Param("afterId") Long afterId, Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.example.book_borrowing_system.repository;
+
+import com.example.book_borrowing_system.dto.BookDto;
+import com.example.book_borrowing_system.model.CatalogChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Sequence numbers are drawn inside the writing statements, so no row or counter is locked to number a change
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+
+    // Schema updates only create sequences that generate IDs, so the feed creates its own
+    @Modifying
+    @Query(value = "CREATE SEQUENCE IF NOT EXISTS " + CatalogChange.SEQUENCE, nativeQuery = true)
+    void createSequence();
+
+    // Replaces the previous change of a book; returns 0 when the book has no change recorded yet
+    @Modifying
+    @Query(value = "UPDATE catalog_change SET seq = nextval('" + CatalogChange.SEQUENCE + "'), " +
+            "change_type = :type, changed_at = :changedAt WHERE book_id = :bookId", nativeQuery = true)
+    int replace(@Param("bookId") Long bookId, @Param("type") String type,
+                @Param("changedAt") LocalDateTime changedAt);
+
+    @Modifying
+    @Query(value = "INSERT INTO catalog_change (book_id, seq, change_type, changed_at) " +
+            "VALUES (:bookId, nextval('" + CatalogChange.SEQUENCE + "'), :type, :changedAt)", nativeQuery = true)
+    int insert(@Param("bookId") Long bookId, @Param("type") String type,
+               @Param("changedAt") LocalDateTime changedAt);
+
+    // Books are joined at read time, so a change row only carries what changed and when
+    @Query("SELECT new com.example.book_borrowing_system.dto.BookDto$Change(" +
+            "c.seq, c.type, b.id, b.isbn, b.title, b.author, b.isAvailable, c.changedAt) " +
+            "FROM CatalogChange c JOIN Book b ON b.id = c.bookId " +
+            "WHERE c.seq > :since ORDER BY c.seq")
+    List<BookDto.Change> findChangesSince(@Param("since") long since, Limit limit);
+
+    // One-time backfill so the feed starts out describing the whole catalog
+    @Modifying
+    @Query(value = "INSERT INTO catalog_change (book_id, seq, change_type, changed_at) " +
+            "SELECT b.id, nextval('" + CatalogChange.SEQUENCE + "'), 'REGISTERED', :changedAt FROM book b",
+            nativeQuery = true)
+    int backfill(@Param("changedAt") LocalDateTime changedAt);
+}
@@ -0,0 +1,19 @@
+package com.example.book_borrowing_system.repository;
+
+import com.example.book_borrowing_system.model.CatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, String> {
+
+    // Commits on its own, after the writing transaction, so the version row is never locked inside one
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE CatalogVersion v SET v.version = v.version + 1, v.changedAt = :changedAt " +
+            "WHERE v.catalog = :catalog")
+    int bump(@Param("catalog") String catalog, @Param("changedAt") long changedAt);
+}
@@ -0,0 +1,57 @@
+package com.example.book_borrowing_system.repository;
+
+import com.example.book_borrowing_system.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// Every statement commits on its own: records outlive the requests that write them
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Claims a key for a request in progress; fails with a duplicate key when the key is already claimed
+    @Transactional
+    @Modifying
+    @Query("INSERT INTO IdempotencyRecord (idempotencyKey, fingerprint, createdAt) " +
+            "VALUES (:idempotencyKey, :fingerprint, :createdAt)")
+    int claim(@Param("idempotencyKey") String idempotencyKey, @Param("fingerprint") String fingerprint,
+              @Param("createdAt") LocalDateTime createdAt);
+
+    // Claims a key whose request was lost before it stored a response; returns 0 when someone else took it first
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :createdAt WHERE r.idempotencyKey = :idempotencyKey " +
+            "AND r.fingerprint = :fingerprint AND r.responseStatus IS NULL AND r.createdAt < :cutoff")
+    int takeOver(@Param("idempotencyKey") String idempotencyKey, @Param("fingerprint") String fingerprint,
+                 @Param("createdAt") LocalDateTime createdAt, @Param("cutoff") LocalDateTime cutoff);
+
+    // Stores the response of the claim made at claimedAt; returns 0 when a retry has taken the key over since
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.responseStatus = :responseStatus, r.contentType = :contentType, " +
+            "r.responseBody = :responseBody WHERE r.idempotencyKey = :idempotencyKey AND r.createdAt = :claimedAt")
+    int complete(@Param("idempotencyKey") String idempotencyKey, @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("responseStatus") int responseStatus, @Param("contentType") String contentType,
+                 @Param("responseBody") String responseBody);
+
+    // Frees a key whose request produced no response worth replaying, so a retry is processed again;
+    // a claim taken over since claimedAt belongs to the retry and is left alone
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :idempotencyKey " +
+            "AND r.createdAt = :claimedAt AND r.responseStatus IS NULL")
+    int release(@Param("idempotencyKey") String idempotencyKey, @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :idempotencyKey AND r.createdAt < :cutoff")
+    int deleteExpired(@Param("idempotencyKey") String idempotencyKey, @Param("cutoff") LocalDateTime cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
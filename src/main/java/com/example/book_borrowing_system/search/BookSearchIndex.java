@@ -0,0 +1,325 @@
+package com.example.book_borrowing_system.search;
+
+import com.example.book_borrowing_system.dto.BookDto;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over book titles and authors, with one document per ISBN.
+ * Queries match every token; the last token also matches as a prefix so the index can serve typeahead.
+ * Results are ranked by the inverse document frequency of the matched terms, weighted by the field they
+ * matched in, with exact matches ranked above prefix matches.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final byte TITLE = 1;
+    private static final byte AUTHOR = 2;
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final double AUTHOR_WEIGHT = 1.0;
+    private static final double PREFIX_WEIGHT = 0.6;
+    // Bounds the postings scored for short prefixes such as "a"; the terms in the most titles are kept
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    // Fewest titles first, so the head of a bounded queue is the expansion to drop
+    private static final Comparator<Match> EXPANSION_ORDER = Comparator.comparingInt(match -> match.postings().size);
+    // Best score first; shorter titles win ties
+    private static final Comparator<BookDto.SearchResult> RESULT_ORDER =
+            Comparator.comparingDouble(BookDto.SearchResult::getScore).reversed()
+                    .thenComparingInt(result -> result.getTitle().length())
+                    .thenComparing(BookDto.SearchResult::getIsbn);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> dictionary = new TreeMap<>();
+    private final Map<String, Integer> docByIsbn = new HashMap<>();
+    private final List<BookDto.CatalogEntry> documents = new ArrayList<>();
+
+    /**
+     * Adds a title to the index. ISBNs that are already indexed are ignored, since every copy of an ISBN
+     * shares its title and author.
+     * @param entry the ISBN, title and author to index
+     */
+    public void add(BookDto.CatalogEntry entry) {
+        addAll(List.of(entry));
+    }
+
+    /**
+     * Adds several titles to the index under a single write lock.
+     * @param entries the ISBNs, titles and authors to index
+     */
+    public void addAll(Collection<BookDto.CatalogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            for (BookDto.CatalogEntry entry : entries) {
+                if (docByIsbn.containsKey(entry.getIsbn())) {
+                    continue;
+                }
+                int doc = documents.size();
+                documents.add(entry);
+                docByIsbn.put(entry.getIsbn(), doc);
+                for (String term : tokenize(entry.getTitle())) {
+                    dictionary.computeIfAbsent(term, t -> new Postings()).add(doc, TITLE);
+                }
+                for (String term : tokenize(entry.getAuthor())) {
+                    dictionary.computeIfAbsent(term, t -> new Postings()).add(doc, AUTHOR);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a title once the current transaction commits, or immediately when there is none,
+     * so registrations that roll back never become searchable.
+     * @param entry the ISBN, title and author to index
+     */
+    public void addAfterCommit(BookDto.CatalogEntry entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(entry);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(entry);
+            }
+        });
+    }
+
+    /**
+     * Returns the number of indexed titles.
+     * @return the number of distinct ISBNs in the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches titles and authors.
+     * @param query the search text; every token must match, the last one as a prefix
+     * @param limit the maximum number of results
+     * @return the best matching titles, highest score first
+     */
+    public List<BookDto.SearchResult> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Resolve every token to the postings it matches; a token without postings means no results
+            List<List<Match>> groups = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                List<Match> group = i == tokens.size() - 1
+                        ? prefixMatches(tokens.get(i))
+                        : exactMatch(tokens.get(i));
+                if (group.isEmpty()) {
+                    return List.of();
+                }
+                groups.add(group);
+            }
+
+            // Drive the intersection from the token with the fewest postings
+            groups.sort(Comparator.comparingInt(BookSearchIndex::groupSize));
+            Candidates candidates = score(groups.get(0));
+            List<List<Match>> others = groups.subList(1, groups.size());
+
+            PriorityQueue<BookDto.SearchResult> top = new PriorityQueue<>(limit + 1, RESULT_ORDER.reversed());
+            for (int c = 0; c < candidates.size(); c++) {
+                int doc = candidates.docs()[c];
+                double score = candidates.scores()[c];
+                for (List<Match> group : others) {
+                    double groupScore = score(group, doc);
+                    if (groupScore == 0) {
+                        score = 0;
+                        break;
+                    }
+                    score += groupScore;
+                }
+                if (score == 0) {
+                    continue;
+                }
+                BookDto.CatalogEntry entry = documents.get(doc);
+                top.add(new BookDto.SearchResult(entry.getIsbn(), entry.getTitle(), entry.getAuthor(), score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<BookDto.SearchResult> results = new ArrayList<>(top);
+            results.sort(RESULT_ORDER);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lower-case, accent-free alphanumeric terms.
+     * @param text the text to tokenize, may be null
+     * @return the terms in order of appearance
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private List<Match> exactMatch(String token) {
+        Postings postings = dictionary.get(token);
+        return postings == null ? List.of() : List.of(new Match(postings, idf(postings)));
+    }
+
+    /**
+     * Expands a prefix to the terms it starts, keeping the term equal to the prefix and the
+     * {@link #MAX_PREFIX_EXPANSIONS} other terms that occur in the most titles.
+     */
+    private List<Match> prefixMatches(String prefix) {
+        Postings exact = null;
+        PriorityQueue<Match> expansions = new PriorityQueue<>(MAX_PREFIX_EXPANSIONS + 1, EXPANSION_ORDER);
+        for (Map.Entry<String, Postings> term : dictionary.tailMap(prefix, true).entrySet()) {
+            if (!term.getKey().startsWith(prefix)) {
+                break;
+            }
+            if (term.getKey().equals(prefix)) {
+                exact = term.getValue();
+                continue;
+            }
+            if (expansions.size() == MAX_PREFIX_EXPANSIONS) {
+                if (expansions.peek().postings().size >= term.getValue().size) {
+                    continue;
+                }
+                expansions.poll();
+            }
+            expansions.add(new Match(term.getValue(), idf(term.getValue()) * PREFIX_WEIGHT));
+        }
+        List<Match> matches = new ArrayList<>(expansions.size() + 1);
+        if (exact != null) {
+            matches.add(new Match(exact, idf(exact)));
+        }
+        matches.addAll(expansions);
+        return matches;
+    }
+
+    private double idf(Postings postings) {
+        return Math.log(1.0 + (double) documents.size() / postings.size);
+    }
+
+    private static int groupSize(List<Match> group) {
+        return group.stream().mapToInt(match -> match.postings().size).sum();
+    }
+
+    /**
+     * Scores every document of a token group; a document matching several expansions keeps the best one.
+     */
+    private Candidates score(List<Match> group) {
+        int[] docs = new int[groupSize(group)];
+        double[] scores = new double[docs.length];
+        // Scores are positive, so 0 marks a document not seen yet
+        double[] best = new double[documents.size()];
+        int size = 0;
+        for (Match match : group) {
+            Postings postings = match.postings();
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                double score = match.weight() * fieldWeight(postings.fields[i]);
+                if (best[doc] == 0) {
+                    docs[size++] = doc;
+                }
+                best[doc] = Math.max(best[doc], score);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            scores[i] = best[docs[i]];
+        }
+        return new Candidates(docs, scores, size);
+    }
+
+    /**
+     * Scores one document against a token group, returning 0 when the document does not match it.
+     */
+    private static double score(List<Match> group, int doc) {
+        double best = 0;
+        for (Match match : group) {
+            byte fields = match.postings().fieldsOf(doc);
+            if (fields != 0) {
+                best = Math.max(best, match.weight() * fieldWeight(fields));
+            }
+        }
+        return best;
+    }
+
+    private static double fieldWeight(byte fields) {
+        return ((fields & TITLE) != 0 ? TITLE_WEIGHT : 0) + ((fields & AUTHOR) != 0 ? AUTHOR_WEIGHT : 0);
+    }
+
+    private record Match(Postings postings, double weight) {
+    }
+
+    /**
+     * The first {@code size} documents of a token group with their scores.
+     */
+    private record Candidates(int[] docs, double[] scores, int size) {
+    }
+
+    /**
+     * Documents containing a term, in ascending order, with the fields the term occurs in.
+     * Documents are only ever appended with increasing IDs, so the arrays stay sorted.
+     */
+    private static class Postings {
+        private int[] docs = new int[4];
+        private byte[] fields = new byte[4];
+        private int size;
+
+        private void add(int doc, byte field) {
+            if (size > 0 && docs[size - 1] == doc) {
+                fields[size - 1] |= field;
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            docs[size] = doc;
+            fields[size] = field;
+            size++;
+        }
+
+        private byte fieldsOf(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            return index >= 0 ? fields[index] : 0;
+        }
+    }
+}
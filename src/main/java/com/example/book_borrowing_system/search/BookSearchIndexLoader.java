@@ -0,0 +1,78 @@
+package com.example.book_borrowing_system.search;
+
+import com.example.book_borrowing_system.config.SearchProperties;
+import com.example.book_borrowing_system.dto.BookDto;
+import com.example.book_borrowing_system.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the search index once the application is ready.
+ * The book table is split into ID ranges that are scanned in parallel; the build runs in the background,
+ * so searches issued before it completes only see part of the catalog.
+ * Scans run on virtual threads when they are enabled; either way at most {@code buildThreads} scans,
+ * and therefore connections, are in flight at once.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndexLoader {
+
+    private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final SearchProperties searchProperties;
+    private final Environment environment;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        newExecutor("book-search-index-builder-").execute(this::scanCatalog);
+    }
+
+    void scanCatalog() {
+        long started = System.nanoTime();
+        Long maxId = bookRepository.findMaxId();
+        if (maxId == null) {
+            return;
+        }
+
+        SimpleAsyncTaskExecutor executor = newExecutor("book-search-index-scan-");
+        executor.setConcurrencyLimit(searchProperties.getBuildThreads());
+        try {
+            List<Future<?>> scans = new ArrayList<>();
+            for (long fromId = 0; fromId < maxId; fromId += searchProperties.getBuildRangeSize()) {
+                long rangeStart = fromId;
+                long rangeEnd = Math.min(fromId + searchProperties.getBuildRangeSize(), maxId);
+                scans.add(executor.submit(() -> {
+                    List<BookDto.CatalogEntry> entries = bookRepository.findCatalogEntriesInRange(rangeStart, rangeEnd);
+                    bookSearchIndex.addAll(entries);
+                }));
+            }
+            for (Future<?> scan : scans) {
+                scan.get();
+            }
+            log.info("Built book search index with {} titles in {} ms",
+                    bookSearchIndex.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Failed to build book search index", e);
+        } finally {
+            executor.close();
+        }
+    }
+
+    private SimpleAsyncTaskExecutor newExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        executor.setDaemon(true);
+        return executor;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.book_borrowing_system.service;
+
+import com.example.book_borrowing_system.cache.BookIsbnCache;
+import com.example.book_borrowing_system.cache.CatalogVersions;
+import com.example.book_borrowing_system.config.LoanProperties;
+import com.example.book_borrowing_system.dto.BookBorrowDto;
+import com.example.book_borrowing_system.exception.IllegalOperationException;
+import com.example.book_borrowing_system.exception.ResourceNotFoundException;
+import com.example.book_borrowing_system.feed.AvailabilityStream;
+import com.example.book_borrowing_system.feed.CatalogChangeFeed;
+import com.example.book_borrowing_system.model.Book;
+import com.example.book_borrowing_system.model.BookBorrow;
+import com.example.book_borrowing_system.model.CatalogChange;
+import com.example.book_borrowing_system.repository.BookBorrowRepository;
+import com.example.book_borrowing_system.repository.BookRepository;
+import com.example.book_borrowing_system.repository.BorrowerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Borrows or returns a cart of books in one transaction, with a fixed number of set-based statements
+ * instead of one transaction and several statements per book.
+ * Every item gets its own outcome. By default the items that can be applied are, and the others are reported;
+ * an atomic batch is only applied if every item succeeds. Items are checked before anything is written,
+ * so a rejected atomic batch costs no writes.
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchLoanService {
+
+    private final BookRepository bookRepository;
+    private final BookBorrowRepository bookBorrowRepository;
+    private final BorrowerRepository borrowerRepository;
+    private final HoldService holdService;
+    private final BookIsbnCache bookIsbnCache;
+    private final CatalogVersions catalogVersions;
+    private final CatalogChangeFeed catalogChangeFeed;
+    private final AvailabilityStream availabilityStream;
+    private final LoanProperties loanProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Borrows several books for one borrower. Free copies are locked and claimed together, copies held for the
+     * borrower are picked up, and all borrow records are inserted with a single statement.
+     * @param borrowerId the ID of the borrower
+     * @param bookIds the IDs of the books to borrow
+     * @param atomic whether to borrow nothing unless every book can be borrowed
+     * @return the outcome of every item, in request order
+     * @throws ResourceNotFoundException if the borrower does not exist
+     * @throws IllegalOperationException if the batch holds more books than allowed
+     */
+    public BookBorrowDto.BatchResponse borrowBooks(Long borrowerId, List<Long> bookIds, boolean atomic) {
+        checkSize(bookIds);
+        return transactionTemplate.execute(status -> {
+            if (!borrowerRepository.existsById(borrowerId)) {
+                throw new ResourceNotFoundException("Borrower not found");
+            }
+            List<BookBorrowDto.BatchItemResult> results = newResults(bookIds);
+            Set<Long> requested = pendingIds(results);
+            if (requested.isEmpty()) {
+                return atomic ? rolledBack(results) : response(results, true);
+            }
+
+            // Copies other transactions are claiming are skipped and reported as unavailable
+            Set<Long> free = bookRepository.lockAvailableByIds(requested).stream()
+                    .map(Book::getId)
+                    .collect(Collectors.toSet());
+            Set<Long> remaining = new HashSet<>(requested);
+            remaining.removeAll(free);
+            Set<Long> held = remaining.isEmpty() ? Set.of() : holdService.findReadyCopies(borrowerId, remaining);
+            remaining.removeAll(held);
+            Set<Long> existing = remaining.isEmpty() ? Set.of() : new HashSet<>(bookRepository.findExistingIds(remaining));
+            for (BookBorrowDto.BatchItemResult result : results) {
+                if (result.getStatus() == null && remaining.contains(result.getBookId())) {
+                    if (existing.contains(result.getBookId())) {
+                        fail(result, BookBorrowDto.BatchItemStatus.NOT_AVAILABLE, "Book is not available for borrowing");
+                    } else {
+                        fail(result, BookBorrowDto.BatchItemStatus.NOT_FOUND, "Book not found");
+                    }
+                }
+            }
+            if (atomic && hasFailures(results)) {
+                return rolledBack(results);
+            }
+
+            if (!free.isEmpty()) {
+                bookRepository.claimAll(free);
+            }
+            Set<Long> borrowed = new HashSet<>(free);
+            for (Long bookId : held) {
+                if (holdService.pickUp(borrowerId, bookId)) {
+                    borrowed.add(bookId);
+                }
+            }
+            if (borrowed.size() < free.size() + held.size()) {
+                // A pickup window closed since the copies were looked up
+                results.stream()
+                        .filter(result -> result.getStatus() == null && !borrowed.contains(result.getBookId()))
+                        .forEach(result -> fail(result, BookBorrowDto.BatchItemStatus.NOT_AVAILABLE,
+                                "Hold on this book has expired"));
+                if (atomic) {
+                    status.setRollbackOnly();
+                    return rolledBack(results);
+                }
+            }
+            if (borrowed.isEmpty()) {
+                return response(results, true);
+            }
+
+            LocalDateTime borrowDate = LocalDateTime.now();
+            bookBorrowRepository.insertAll(borrowerId, borrowed, borrowDate);
+            Map<Long, Long> borrowIds = new HashMap<>();
+            bookBorrowRepository.findActiveSummariesByBookIds(borrowed)
+                    .forEach(summary -> borrowIds.put(summary.getBookId(), summary.getId()));
+            for (BookBorrowDto.BatchItemResult result : results) {
+                if (result.getStatus() == null) {
+                    result.setStatus(BookBorrowDto.BatchItemStatus.BORROWED);
+                    result.setBorrowId(borrowIds.get(result.getBookId()));
+                    result.setExpectedReturnDate(borrowDate.plus(loanProperties.getPeriod()));
+                }
+            }
+
+            for (Long bookId : borrowed) {
+                bookIsbnCache.evictBook(bookId);
+                catalogChangeFeed.record(bookId, CatalogChange.Type.BORROWED);
+            }
+            free.forEach(bookId -> availabilityStream.publishAfterCommit(bookId, false));
+            catalogVersions.changed(CatalogVersions.Catalog.BOOKS);
+            return response(results, true);
+        });
+    }
+
+    /**
+     * Returns several books of one borrower. The open borrows are locked and closed together; returned copies go
+     * to waiting holds like single returns, and the rest are made available with a single statement.
+     * @param borrowerId the ID of the borrower
+     * @param bookIds the IDs of the books to return
+     * @param atomic whether to return nothing unless every book can be returned
+     * @return the outcome of every item, in request order
+     * @throws IllegalOperationException if the batch holds more books than allowed
+     */
+    public BookBorrowDto.BatchResponse returnBooks(Long borrowerId, List<Long> bookIds, boolean atomic) {
+        checkSize(bookIds);
+        return transactionTemplate.execute(status -> {
+            List<BookBorrowDto.BatchItemResult> results = newResults(bookIds);
+            Set<Long> requested = pendingIds(results);
+            if (requested.isEmpty()) {
+                return atomic ? rolledBack(results) : response(results, true);
+            }
+
+            Map<Long, BookBorrow> activeBorrows = new HashMap<>();
+            bookBorrowRepository.lockActiveByBookIds(requested)
+                    .forEach(bookBorrow -> activeBorrows.put(bookBorrow.getBook().getId(), bookBorrow));
+            List<Long> borrowIds = new ArrayList<>();
+            Set<Long> returned = new HashSet<>();
+            for (BookBorrowDto.BatchItemResult result : results) {
+                if (result.getStatus() != null) {
+                    continue;
+                }
+                BookBorrow bookBorrow = activeBorrows.get(result.getBookId());
+                if (bookBorrow == null) {
+                    fail(result, BookBorrowDto.BatchItemStatus.NOT_BORROWED, "No active borrow record found");
+                } else if (!bookBorrow.getBorrower().getId().equals(borrowerId)) {
+                    fail(result, BookBorrowDto.BatchItemStatus.NOT_BORROWED, "Book was not borrowed by this borrower");
+                } else {
+                    result.setBorrowId(bookBorrow.getId());
+                    borrowIds.add(bookBorrow.getId());
+                    returned.add(result.getBookId());
+                }
+            }
+            if (atomic && hasFailures(results)) {
+                return rolledBack(results);
+            }
+            if (returned.isEmpty()) {
+                return response(results, true);
+            }
+
+            // The borrows are locked, so none of them can have been returned concurrently
+            bookBorrowRepository.markAllReturned(borrowIds, LocalDateTime.now());
+            Set<Long> available = new HashSet<>(returned);
+            available.removeAll(holdService.handOffAll(returned));
+            if (!available.isEmpty()) {
+                bookRepository.markAllAvailable(available);
+            }
+            for (BookBorrowDto.BatchItemResult result : results) {
+                if (result.getStatus() == null) {
+                    result.setStatus(BookBorrowDto.BatchItemStatus.RETURNED);
+                }
+            }
+
+            for (Long bookId : returned) {
+                bookIsbnCache.evictBook(bookId);
+                catalogChangeFeed.record(bookId, CatalogChange.Type.RETURNED);
+            }
+            available.forEach(bookId -> availabilityStream.publishAfterCommit(bookId, true));
+            catalogVersions.changed(CatalogVersions.Catalog.BOOKS);
+            return response(results, true);
+        });
+    }
+
+    private void checkSize(List<Long> bookIds) {
+        if (bookIds.size() > loanProperties.getMaxBatchSize()) {
+            throw new IllegalOperationException(
+                    "A batch may contain at most " + loanProperties.getMaxBatchSize() + " books");
+        }
+    }
+
+    // One result per item; missing and repeated IDs are rejected up front, the others are left pending
+    private static List<BookBorrowDto.BatchItemResult> newResults(List<Long> bookIds) {
+        List<BookBorrowDto.BatchItemResult> results = new ArrayList<>(bookIds.size());
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < bookIds.size(); i++) {
+            BookBorrowDto.BatchItemResult result = new BookBorrowDto.BatchItemResult();
+            result.setIndex(i);
+            result.setBookId(bookIds.get(i));
+            if (result.getBookId() == null) {
+                fail(result, BookBorrowDto.BatchItemStatus.NOT_FOUND, "Book ID is required");
+            } else if (!seen.add(result.getBookId())) {
+                fail(result, BookBorrowDto.BatchItemStatus.DUPLICATE, "Book appears more than once in the batch");
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static Set<Long> pendingIds(List<BookBorrowDto.BatchItemResult> results) {
+        return results.stream()
+                .filter(result -> result.getStatus() == null)
+                .map(BookBorrowDto.BatchItemResult::getBookId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static void fail(BookBorrowDto.BatchItemResult result, BookBorrowDto.BatchItemStatus status, String message) {
+        result.setStatus(status);
+        result.setMessage(message);
+    }
+
+    private static boolean hasFailures(List<BookBorrowDto.BatchItemResult> results) {
+        return results.stream().anyMatch(result -> result.getStatus() != null);
+    }
+
+    private static BookBorrowDto.BatchResponse rolledBack(List<BookBorrowDto.BatchItemResult> results) {
+        for (BookBorrowDto.BatchItemResult result : results) {
+            if (result.getStatus() == null) {
+                fail(result, BookBorrowDto.BatchItemStatus.ROLLED_BACK, "Not applied because other items failed");
+            }
+            result.setBorrowId(null);
+        }
+        return response(results, false);
+    }
+
+    private static BookBorrowDto.BatchResponse response(List<BookBorrowDto.BatchItemResult> results, boolean committed) {
+        BookBorrowDto.BatchResponse response = new BookBorrowDto.BatchResponse();
+        response.setCommitted(committed);
+        response.setResults(results);
+        response.setSucceeded((int) results.stream()
+                .filter(result -> result.getStatus() == BookBorrowDto.BatchItemStatus.BORROWED
+                        || result.getStatus() == BookBorrowDto.BatchItemStatus.RETURNED)
+                .count());
+        response.setFailed(results.size() - response.getSucceeded());
+        return response;
+    }
+}
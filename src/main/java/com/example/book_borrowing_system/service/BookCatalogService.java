@@ -0,0 +1,152 @@
+package com.example.book_borrowing_system.service;
+
+import com.example.book_borrowing_system.config.LoanProperties;
+import com.example.book_borrowing_system.dto.BookBorrowDto;
+import com.example.book_borrowing_system.dto.BookDto;
+import com.example.book_borrowing_system.model.Book;
+import com.example.book_borrowing_system.repository.BookBorrowRepository;
+import com.example.book_borrowing_system.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+
+/**
+ * Builds catalog listing responses from a fixed number of set-based queries.
+ * Active borrows and (optionally) borrow history for a set of books are each fetched once and joined in memory,
+ * so the number of database round trips does not depend on the number of books returned.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookCatalogService {
+
+    private final BookRepository bookRepository;
+    private final BookBorrowRepository bookBorrowRepository;
+    private final EntityManager entityManager;
+    private final LoanProperties loanProperties;
+
+    /**
+     * Converts an already loaded set of books into response DTOs.
+     * Borrow details are fetched with one IN query for active borrows and one for history when requested.
+     * @param books the books to convert
+     * @param withBorrowHistory whether to include the borrow history of each book
+     * @return the response DTOs in the same order as the given books
+     */
+    @Transactional(readOnly = true)
+    public List<BookDto.Response> toResponses(List<Book> books, boolean withBorrowHistory) {
+        if (books.isEmpty()) {
+            return List.of();
+        }
+        List<Long> bookIds = books.stream().map(Book::getId).toList();
+
+        // Only unavailable books carry loan details, so skip the query when every book is on the shelf
+        Map<Long, BookBorrowDto.Summary> activeByBook = new HashMap<>();
+        if (books.stream().anyMatch(book -> !book.isAvailable())) {
+            for (BookBorrowDto.Summary borrow : bookBorrowRepository.findActiveSummariesByBookIds(bookIds)) {
+                activeByBook.put(borrow.getBookId(), borrow);
+            }
+        }
+
+        Map<Long, List<BookBorrowDto.Summary>> historyByBook = new HashMap<>();
+        if (withBorrowHistory) {
+            for (BookBorrowDto.Summary borrow : bookBorrowRepository.findSummariesByBookIds(bookIds)) {
+                historyByBook.computeIfAbsent(borrow.getBookId(), id -> new ArrayList<>()).add(borrow);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<BookDto.Response> responses = new ArrayList<>(books.size());
+        for (Book book : books) {
+            List<BookBorrowDto.Summary> history = withBorrowHistory
+                    ? historyByBook.getOrDefault(book.getId(), List.of())
+                    : null;
+            responses.add(toResponse(book, activeByBook.get(book.getId()), history, now));
+        }
+        return responses;
+    }
+
+    /**
+     * Streams the whole catalog ordered by book ID to the given consumer.
+     * Books and borrows are read through two forward-only cursors ordered by book ID and merged as they go,
+     * so memory use is bounded by the history of a single book rather than by the size of the catalog.
+     * @param withBorrowHistory whether to include the borrow history of each book
+     * @param sink receives each book response as soon as it is built
+     */
+    @Transactional(readOnly = true)
+    public void exportCatalog(boolean withBorrowHistory, Consumer<BookDto.Response> sink) {
+        LocalDateTime now = LocalDateTime.now();
+        try (Stream<Book> books = bookRepository.streamAllOrderById();
+             Stream<BookBorrowDto.Summary> borrows = withBorrowHistory
+                     ? bookBorrowRepository.streamAllSummariesOrderByBookId()
+                     : bookBorrowRepository.streamActiveSummariesOrderByBookId()) {
+            Iterator<BookBorrowDto.Summary> borrowIterator = borrows.iterator();
+            BookBorrowDto.Summary pending = borrowIterator.hasNext() ? borrowIterator.next() : null;
+
+            Iterator<Book> bookIterator = books.iterator();
+            while (bookIterator.hasNext()) {
+                Book book = bookIterator.next();
+
+                // Collect the borrows of this book; both cursors are ordered by book ID
+                BookBorrowDto.Summary activeBorrow = null;
+                List<BookBorrowDto.Summary> history = withBorrowHistory ? new ArrayList<>() : null;
+                while (pending != null && pending.getBookId() <= book.getId()) {
+                    if (pending.getBookId().equals(book.getId())) {
+                        if (pending.getReturnDate() == null) {
+                            activeBorrow = pending;
+                        }
+                        if (history != null) {
+                            history.add(pending);
+                        }
+                    }
+                    pending = borrowIterator.hasNext() ? borrowIterator.next() : null;
+                }
+
+                sink.accept(toResponse(book, activeBorrow, history, now));
+                // Keep the persistence context from growing with the catalog
+                entityManager.detach(book);
+            }
+        }
+    }
+
+    private BookDto.Response toResponse(Book book, BookBorrowDto.Summary activeBorrow,
+                                        List<BookBorrowDto.Summary> history, LocalDateTime now) {
+        BookDto.Response response = new BookDto.Response();
+        response.setId(book.getId());
+        response.setIsbn(book.getIsbn());
+        response.setTitle(book.getTitle());
+        response.setAuthor(book.getAuthor());
+        response.setAvailable(book.isAvailable());
+
+        if (!book.isAvailable() && activeBorrow != null) {
+            LocalDateTime expectedReturnDate = activeBorrow.getBorrowDate().plus(loanProperties.getPeriod());
+            response.setExpectedReturnDate(expectedReturnDate);
+            response.setOverdue(now.isAfter(expectedReturnDate));
+        }
+
+        if (history != null) {
+            response.setBorrowHistory(history.stream().map(this::toHistoryResponse).toList());
+        }
+        return response;
+    }
+
+    private BookDto.BorrowHistoryResponse toHistoryResponse(BookBorrowDto.Summary borrow) {
+        BookDto.BorrowHistoryResponse history = new BookDto.BorrowHistoryResponse();
+        history.setBorrowId(borrow.getId());
+        history.setBorrowerId(borrow.getBorrowerId());
+        history.setBorrowerName(borrow.getBorrowerName());
+        history.setBorrowerEmail(borrow.getBorrowerEmail());
+        history.setBorrowDate(borrow.getBorrowDate());
+        history.setReturnDate(borrow.getReturnDate());
+        return history;
+    }
+}
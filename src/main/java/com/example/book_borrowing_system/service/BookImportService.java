@@ -0,0 +1,195 @@
+package com.example.book_borrowing_system.service;
+
+import com.example.book_borrowing_system.cache.BookIsbnCache;
+import com.example.book_borrowing_system.cache.CatalogVersions;
+import com.example.book_borrowing_system.config.BulkProperties;
+import com.example.book_borrowing_system.dto.BookDto;
+import com.example.book_borrowing_system.exception.IllegalOperationException;
+import com.example.book_borrowing_system.feed.CatalogChangeFeed;
+import com.example.book_borrowing_system.model.Book;
+import com.example.book_borrowing_system.model.CatalogChange;
+import com.example.book_borrowing_system.repository.BookRepository;
+import com.example.book_borrowing_system.search.BookSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+
+/**
+ * Registers books in bulk. Items are processed in chunks, each in its own transaction:
+ * ISBN conflicts for a chunk are resolved with one IN query and the accepted books are inserted
+ * with JDBC batching, using pooled sequence IDs so no insert waits for a generated key.
+ * A chunk that fails is rolled back and its items are reported as failed; the other chunks are unaffected.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookImportService {
+
+    private final BookRepository bookRepository;
+    private final BulkProperties bulkProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final BookIsbnCache bookIsbnCache;
+    private final BookSearchIndex bookSearchIndex;
+    private final CatalogVersions catalogVersions;
+    private final CatalogChangeFeed catalogChangeFeed;
+    private final HoldService holdService;
+
+    /**
+     * Registers the given books, applying the same rules as BookService.registerBook to each item.
+     * Invalid and conflicting items, and the items of chunks that could not be stored, are reported and
+     * skipped; the remaining items are registered.
+     * @param requests the books to register
+     * @return the outcome of every item, in request order
+     * @throws IllegalOperationException if the request holds more items than allowed
+     */
+    public BookDto.BulkRegisterResponse registerBooks(List<BookDto.RegisterRequest> requests) {
+        if (requests.size() > bulkProperties.getMaxItems()) {
+            throw new IllegalOperationException(
+                    "A bulk request may contain at most " + bulkProperties.getMaxItems() + " books");
+        }
+
+        // Title and author already known for each ISBN, from the database or from earlier committed items
+        Map<String, BookDto.RegisterRequest> knownIsbns = new HashMap<>();
+        List<BookDto.BulkItemResult> results = new ArrayList<>(requests.size());
+        for (int start = 0; start < requests.size(); start += bulkProperties.getChunkSize()) {
+            int end = Math.min(start + bulkProperties.getChunkSize(), requests.size());
+            int offset = start;
+            List<BookDto.RegisterRequest> chunk = requests.subList(start, end);
+            // Checked against a copy, so the ISBNs of a chunk that rolls back do not count as registered
+            Map<String, BookDto.RegisterRequest> chunkIsbns = new HashMap<>(knownIsbns);
+            try {
+                results.addAll(transactionTemplate.execute(status -> registerChunk(chunk, offset, chunkIsbns)));
+                knownIsbns = chunkIsbns;
+            } catch (RuntimeException e) {
+                // Earlier chunks stay committed; the items of this one are reported instead of failing the request
+                log.warn("Bulk registration of items {} to {} failed and was rolled back", start, end - 1, e);
+                results.addAll(failedChunk(chunk.size(), offset));
+            }
+        }
+
+        BookDto.BulkRegisterResponse response = new BookDto.BulkRegisterResponse();
+        response.setResults(results);
+        response.setCreated((int) results.stream()
+                .filter(result -> result.getStatus() == BookDto.BulkItemStatus.CREATED)
+                .count());
+        response.setFailed(results.size() - response.getCreated());
+        return response;
+    }
+
+    private List<BookDto.BulkItemResult> registerChunk(List<BookDto.RegisterRequest> chunk, int offset,
+                                                       Map<String, BookDto.RegisterRequest> knownIsbns) {
+        // One lookup for every ISBN of the chunk that has not been seen yet
+        Set<String> unseenIsbns = chunk.stream()
+                .map(BookDto.RegisterRequest::getIsbn)
+                .filter(isbn -> isbn != null && !knownIsbns.containsKey(isbn))
+                .collect(Collectors.toCollection(HashSet::new));
+        if (!unseenIsbns.isEmpty()) {
+            for (Book existing : bookRepository.findByIsbnIn(unseenIsbns)) {
+                knownIsbns.putIfAbsent(existing.getIsbn(), toRequest(existing));
+            }
+        }
+
+        List<BookDto.BulkItemResult> results = new ArrayList<>(chunk.size());
+        List<Book> accepted = new ArrayList<>();
+        List<BookDto.BulkItemResult> acceptedResults = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BookDto.RegisterRequest request = chunk.get(i);
+            BookDto.BulkItemResult result = new BookDto.BulkItemResult();
+            result.setIndex(offset + i);
+            results.add(result);
+
+            if (request == null) {
+                result.setStatus(BookDto.BulkItemStatus.INVALID);
+                result.setMessage("Book details are required");
+                continue;
+            }
+            Set<ConstraintViolation<BookDto.RegisterRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                result.setStatus(BookDto.BulkItemStatus.INVALID);
+                result.setMessage(violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+
+            BookDto.RegisterRequest known = knownIsbns.putIfAbsent(request.getIsbn(), request);
+            if (known != null && (!known.getTitle().equalsIgnoreCase(request.getTitle()) ||
+                    !known.getAuthor().equalsIgnoreCase(request.getAuthor()))) {
+                result.setStatus(BookDto.BulkItemStatus.CONFLICT);
+                result.setMessage(
+                        "A book with the same ISBN exists but with different title or author. Please enter valid Author and Title.");
+                continue;
+            }
+
+            Book book = new Book();
+            book.setIsbn(request.getIsbn());
+            book.setTitle(request.getTitle());
+            book.setAuthor(request.getAuthor());
+            book.setAvailable(true);
+            accepted.add(book);
+            acceptedResults.add(result);
+        }
+
+        // Flushed as batched inserts; clearing keeps the persistence context from growing across chunks
+        bookRepository.saveAll(accepted);
+        entityManager.flush();
+        // New copies of titles with a queue are set aside for the oldest holds, like returned ones
+        Set<Long> handedOff = holdService.handOffAll(accepted.stream().map(Book::getId).toList());
+        if (!handedOff.isEmpty()) {
+            accepted.stream()
+                    .filter(book -> handedOff.contains(book.getId()))
+                    .forEach(book -> book.setAvailable(false));
+            entityManager.flush();
+        }
+        entityManager.clear();
+
+        accepted.stream().map(Book::getIsbn).distinct().forEach(bookIsbnCache::evictIsbn);
+        catalogVersions.changed(CatalogVersions.Catalog.BOOKS);
+        accepted.forEach(book -> bookSearchIndex.addAfterCommit(
+                new BookDto.CatalogEntry(book.getIsbn(), book.getTitle(), book.getAuthor())));
+
+        for (int i = 0; i < accepted.size(); i++) {
+            catalogChangeFeed.record(accepted.get(i).getId(), CatalogChange.Type.REGISTERED);
+            acceptedResults.get(i).setStatus(BookDto.BulkItemStatus.CREATED);
+            acceptedResults.get(i).setBookId(accepted.get(i).getId());
+        }
+        return results;
+    }
+
+    private static List<BookDto.BulkItemResult> failedChunk(int size, int offset) {
+        List<BookDto.BulkItemResult> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            BookDto.BulkItemResult result = new BookDto.BulkItemResult();
+            result.setIndex(offset + i);
+            result.setStatus(BookDto.BulkItemStatus.FAILED);
+            result.setMessage("Not registered: the items " + offset + " to " + (offset + size - 1)
+                    + " could not be stored and were rolled back; retry them");
+            results.add(result);
+        }
+        return results;
+    }
+
+    private BookDto.RegisterRequest toRequest(Book book) {
+        BookDto.RegisterRequest request = new BookDto.RegisterRequest();
+        request.setIsbn(book.getIsbn());
+        request.setTitle(book.getTitle());
+        request.setAuthor(book.getAuthor());
+        return request;
+    }
+}
@@ -1,15 +1,23 @@
 package com.example.book_borrowing_system.service;
 
 
-import com.example.book_borrowing_system.dto.BookBorrowDto;
+import com.example.book_borrowing_system.cache.BookIsbnCache;
+import com.example.book_borrowing_system.cache.CatalogVersions;
+import com.example.book_borrowing_system.dto.BookDto;
+import com.example.book_borrowing_system.dto.CursorPage;
 import com.example.book_borrowing_system.model.*;
 import com.example.book_borrowing_system.repository.*;
 import com.example.book_borrowing_system.exception.*;
+import com.example.book_borrowing_system.feed.AvailabilityStream;
+import com.example.book_borrowing_system.feed.CatalogChangeFeed;
+import com.example.book_borrowing_system.search.BookSearchIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 
 @Service
@@ -19,12 +27,20 @@ public class BookService {
     private final BookRepository bookRepository;
     private final BookBorrowRepository bookBorrowRepository;
     private final BorrowerRepository borrowerRepository;
+    private final BookIsbnCache bookIsbnCache;
+    private final BookSearchIndex bookSearchIndex;
+    private final CatalogVersions catalogVersions;
+    private final CatalogChangeFeed catalogChangeFeed;
+    private final AvailabilityStream availabilityStream;
+    private final HoldService holdService;
     
 
     /**
      * Registers a new book with the given ISBN, title, and author.
      * This method checks if a book with the same ISBN already exists and if its title/author match.
      * If there's a conflict (same ISBN but different title or author), a ConflictException is thrown.
+     * A new copy of a title that borrowers are waiting for is set aside for the oldest hold instead of
+     * becoming available.
      * @param isbn the ISBN of the book
      * @param title the title of the book
      * @param author the author of the book
@@ -50,46 +66,121 @@ public class BookService {
         book.setTitle(title);
         book.setAuthor(author);
         book.setAvailable(true);
-        return bookRepository.save(book);
+        Book saved;
+        if (existingBooks.isEmpty()) {
+            saved = bookRepository.save(book);
+        } else {
+            // A new copy of a known title goes to its queue first, like a returned one
+            saved = bookRepository.saveAndFlush(book);
+            if (holdService.handOff(saved.getId())) {
+                saved.setAvailable(false);
+            }
+        }
+        bookIsbnCache.evictIsbn(isbn);
+        catalogVersions.changed(CatalogVersions.Catalog.BOOKS);
+        catalogChangeFeed.record(saved.getId(), CatalogChange.Type.REGISTERED);
+        bookSearchIndex.addAfterCommit(new BookDto.CatalogEntry(isbn, title, author));
+        return saved;
+    }
+
+    /**
+     * Searches book titles and authors in the in-process search index.
+     * The last word of the query also matches as a prefix, which supports typeahead.
+     * @param query the search text
+     * @param limit the maximum number of results
+     * @return the best matching titles, one per ISBN, highest score first
+     */
+    public List<BookDto.SearchResult> searchBooks(String query, int limit) {
+        return bookSearchIndex.search(query, limit);
     }
 
     /**
-     * Retrieves all books from the repository.
-     * @return a list of all books
+     * Retrieves one page of books ordered by ID using keyset pagination.
+     * Each page is a range scan on the primary key, so deep pages cost the same as the first one.
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of books on the page
+     * @return the page of books and the cursor of the next page
      */
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    public CursorPage<Book> getBooksPage(String cursor, int size) {
+        long afterId = CursorPage.decode(cursor);
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size + 1));
+        return CursorPage.of(books, size, Book::getId);
     }
 
     /**
-     * Allows a borrower to borrow a book. This method checks if the book is available and if it's not already borrowed.
-     * It marks the book as unavailable and creates a new BookBorrow record.
+     * Allows a borrower to borrow a book.
+     * The book is claimed with a single conditional update that only succeeds while it is available,
+     * so concurrent borrows of the same book cannot both succeed without serializing the transaction.
+     * It then creates a new BookBorrow record.
      * @param borrowerId the ID of the borrower
      * @param bookId the ID of the book to borrow
      * @return the created BookBorrow object
      */
     @Transactional
     public BookBorrow borrowBook(Long borrowerId, Long bookId) {
-        // Fetch the book and borrower details
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
+        return claimAndBorrow(borrowerId, bookId);
+    }
 
-        Borrower borrower = borrowerRepository.findById(borrowerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Borrower not found"));
+    /**
+     * Allows a borrower to borrow any available copy of the given ISBN in a single call.
+     * A copy set aside for the borrower by a hold is picked up first. Otherwise one free copy is locked with FOR UPDATE SKIP LOCKED, so concurrent borrowers of the same title
+     * each get a different copy instead of queueing behind, or conflicting on, the same row.
+     * @param borrowerId the ID of the borrower
+     * @param isbn the ISBN of the title to borrow
+     * @return the created BookBorrow object for the claimed copy
+     * @throws ResourceNotFoundException if no book with the ISBN exists
+     * @throws IllegalStateException if every copy is borrowed or being borrowed
+     */
+    @Transactional
+    public BookBorrow borrowAnyCopy(Long borrowerId, String isbn) {
+        Optional<Long> heldCopy = holdService.findReadyCopy(borrowerId, isbn);
+        if (heldCopy.isPresent()) {
+            return claimAndBorrow(borrowerId, heldCopy.get());
+        }
+        List<Book> copies = bookRepository.lockAvailableCopies(isbn, Limit.of(1));
+        if (copies.isEmpty()) {
+            if (bookRepository.findAvailabilityByIsbn(isbn).isEmpty()) {
+                throw new ResourceNotFoundException("Book not found with ISBN: " + isbn);
+            }
+            throw new IllegalStateException("No copy of this book is available for borrowing");
+        }
+        return claimAndBorrow(borrowerId, copies.get(0).getId());
+    }
+
+    /**
+     * Retrieves how many copies of an ISBN exist and how many are available, in one indexed query.
+     * @param isbn the ISBN of the title
+     * @return the copy counts
+     * @throws ResourceNotFoundException if no book with the ISBN exists
+     */
+    public BookDto.Availability getAvailability(String isbn) {
+        return bookRepository.findAvailabilityByIsbn(isbn)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ISBN: " + isbn));
+    }
 
-        // Check if the book is available for borrowing
-        if (!book.isAvailable()) {
+    private BookBorrow claimAndBorrow(Long borrowerId, Long bookId) {
+        // Atomically mark the book as unavailable; no rows means it is missing, borrowed or on hold.
+        // A copy on hold for this borrower is picked up instead; it stayed unavailable while set aside.
+        boolean claimed = bookRepository.claimIfAvailable(bookId) == 1;
+        if (!claimed && !holdService.pickUp(borrowerId, bookId)) {
+            if (!bookRepository.existsById(bookId)) {
+                throw new ResourceNotFoundException("Book not found");
+            }
             throw new IllegalStateException("Book is not available for borrowing");
         }
-
-        // Check if the book is already borrowed
-        if (bookBorrowRepository.findActiveBookBorrow(bookId).isPresent()) {
-            throw new IllegalStateException("Book is already borrowed");
+        Book book = bookRepository.getReferenceById(bookId);
+        bookIsbnCache.evictBook(bookId);
+        catalogVersions.changed(CatalogVersions.Catalog.BOOKS);
+        catalogChangeFeed.record(bookId, CatalogChange.Type.BORROWED);
+        if (claimed) {
+            availabilityStream.publishAfterCommit(bookId, false);
         }
 
-        // Mark the book as unavailable and save the book details
-        book.setAvailable(false);
-        bookRepository.save(book);
+        // Only the borrower's existence is checked; a missing borrower rolls the claim back
+        if (!borrowerRepository.existsById(borrowerId)) {
+            throw new ResourceNotFoundException("Borrower not found");
+        }
+        Borrower borrower = borrowerRepository.getReferenceById(borrowerId);
 
         // Create a new BookBorrow record
         BookBorrow bookBorrow = new BookBorrow();
@@ -103,7 +194,9 @@ public class BookService {
 
     /**
      * Allows a borrower to return a borrowed book.
-     * This method checks if the book was borrowed by the correct borrower and updates the book's availability.
+     * This method checks if the book was borrowed by the correct borrower, then hands the book to the oldest
+     * waiting hold on its title or, when nobody is waiting, makes it available again.
+     * The borrow record is closed with a conditional update, so a concurrent return of the same book fails cleanly.
      * @param borrowerId the ID of the borrower
      * @param bookId the ID of the book to return
      * @return the updated BookBorrow object
@@ -119,57 +212,40 @@ public class BookService {
             throw new IllegalStateException("Book was not borrowed by this borrower");
         }
 
-        // Mark the book as available and save the book details
-        Book book = bookBorrow.getBook();
-        book.setAvailable(true);
-        bookRepository.save(book);
+        // Close the borrow record only if nobody else returned it in the meantime
+        LocalDateTime returnDate = LocalDateTime.now();
+        if (bookBorrowRepository.markReturned(bookBorrow.getId(), returnDate) == 0) {
+            throw new ResourceNotFoundException("No active borrow record found");
+        }
 
-        // Set the return date and save the updated borrow record
-        bookBorrow.setReturnDate(LocalDateTime.now());
-        return bookBorrowRepository.save(bookBorrow);
+        // Hand the book to the next holder of the title, or mark it as available again when nobody waits
+        if (!holdService.handOff(bookId)) {
+            bookRepository.markAvailable(bookId);
+            availabilityStream.publishAfterCommit(bookId, true);
+        }
+        bookIsbnCache.evictBook(bookId);
+        catalogVersions.changed(CatalogVersions.Catalog.BOOKS);
+        catalogChangeFeed.record(bookId, CatalogChange.Type.RETURNED);
+
+        // The record was detached by the update, so this only reflects the new state in the response
+        bookBorrow.setReturnDate(returnDate);
+        return bookBorrow;
     }
 
     /**
      * Retrieves a book by its ISBN.
+     * Lookups are served from the in-process ISBN cache, which the write paths of this service keep current.
      * This method throws a ResourceNotFoundException if the book with the given ISBN is not found.
      * @param isbn the ISBN of the book
-     * @return the found Book object
+     * @return the found Book object, detached from the persistence context
      */
     public Book getBookByIsbn(String isbn) {
-        List<Book> books = bookRepository.findByIsbn(isbn);
-        if (books.isEmpty()) {
-            throw new ResourceNotFoundException("Book not found with ISBN: " + isbn);
-        }
-        return books.get(0);
-    }
-
-    /**
-     * Retrieves the borrow details of a book.
-     * This method checks if the book has an active borrow record and returns the borrow details, including overdue status.
-     * @param bookId the ID of the book
-     * @return the borrow details of the book
-     */
-    @Transactional
-    public BookBorrowDto.Response getBookBorrowDetails(Long bookId) {
-        // Fetch the active book borrow record
-        BookBorrow bookBorrow = bookBorrowRepository.findActiveBookBorrow(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("No active borrow record found"));
-
-        // Prepare the response DTO with borrow details
-        BookBorrowDto.Response response = new BookBorrowDto.Response();
-        response.setId(bookBorrow.getId());
-        response.setBorrowerId(bookBorrow.getBorrower().getId());
-        response.setBookId(bookBorrow.getBook().getId());
-        response.setBorrowDate(bookBorrow.getBorrowDate());
-
-        // Calculate expected return date (2 weeks from borrow date)
-        LocalDateTime expectedReturnDate = bookBorrow.getBorrowDate().plusWeeks(2);
-        response.setExpectedReturnDate(expectedReturnDate);
-
-        // Check if the book is overdue
-        boolean isOverdue = LocalDateTime.now().isAfter(expectedReturnDate);
-        response.setOverdue(isOverdue);
-
-        return response;
+        return bookIsbnCache.get(isbn, () -> {
+            List<Book> books = bookRepository.findByIsbn(isbn);
+            if (books.isEmpty()) {
+                throw new ResourceNotFoundException("Book not found with ISBN: " + isbn);
+            }
+            return books.get(0);
+        });
     }
 }
@@ -0,0 +1,244 @@
+package com.example.book_borrowing_system.service;
+
+import com.example.book_borrowing_system.cache.CatalogVersions;
+import com.example.book_borrowing_system.config.BulkProperties;
+import com.example.book_borrowing_system.dto.BorrowerDto;
+import com.example.book_borrowing_system.model.Borrower;
+import com.example.book_borrowing_system.repository.BorrowerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+
+/**
+ * Imports borrowers from a CSV or NDJSON stream.
+ * The input is read line by line and committed in chunks: each chunk checks its emails against the database
+ * with one IN query and inserts the accepted borrowers with JDBC batching. Only the emails seen so far are kept
+ * in memory, to reject duplicates within the file.
+ * Each chunk's rejected rows and progress are reported once its transaction has ended; a chunk that fails to
+ * commit is rolled back and its rows are reported as not imported.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BorrowerImportService {
+
+    private static final String CSV_HEADER = "name,email";
+
+    private final BorrowerRepository borrowerRepository;
+    private final BulkProperties bulkProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final CatalogVersions catalogVersions;
+
+    /**
+     * Imports every borrower read from the given reader.
+     * Rows that cannot be parsed, fail validation, use an already registered email or belong to a chunk that
+     * could not be stored are reported and skipped.
+     * A progress event is reported after each chunk.
+     * @param reader the CSV (name,email with optional header) or NDJSON input
+     * @param format the input format
+     * @param listener receives error and progress events as the import runs
+     * @return the summary event with the final counters
+     * @throws IOException if the input cannot be read
+     */
+    public BorrowerDto.ImportEvent importBorrowers(BufferedReader reader, BorrowerDto.ImportFormat format,
+                                                   Consumer<BorrowerDto.ImportEvent> listener) throws IOException {
+        Progress progress = new Progress();
+        Set<String> seenEmails = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(bulkProperties.getChunkSize());
+
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (format == BorrowerDto.ImportFormat.CSV && lineNumber == 1
+                    && line.replace(" ", "").equalsIgnoreCase(CSV_HEADER))) {
+                continue;
+            }
+
+            try {
+                chunk.add(new Row(lineNumber, parse(line, format)));
+            } catch (IllegalArgumentException | JsonProcessingException e) {
+                progress.fail(listener, lineNumber, "Malformed row");
+                continue;
+            }
+
+            if (chunk.size() == bulkProperties.getChunkSize()) {
+                importChunk(chunk, seenEmails, progress, listener);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, seenEmails, progress, listener);
+        }
+
+        return BorrowerDto.ImportEvent.counters(BorrowerDto.ImportEventType.SUMMARY,
+                progress.processed, progress.imported, progress.failed);
+    }
+
+    private void importChunk(List<Row> chunk, Set<String> seenEmails, Progress progress,
+                             Consumer<BorrowerDto.ImportEvent> listener) {
+        // Outcomes are reported only after the chunk's transaction has ended, so no reported row is rolled back
+        List<BorrowerDto.ImportEvent> errors = new ArrayList<>();
+        List<Row> candidates = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            Set<ConstraintViolation<BorrowerDto.RegisterRequest>> violations = validator.validate(row.request());
+            if (!violations.isEmpty()) {
+                errors.add(BorrowerDto.ImportEvent.error(row.line(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "))));
+            } else if (!seenEmails.add(row.request().getEmail())) {
+                errors.add(BorrowerDto.ImportEvent.error(row.line(), "Email appears more than once in the import"));
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            progress.report(listener, errors, 0);
+            return;
+        }
+
+        int imported;
+        try {
+            Set<Long> registeredLines = transactionTemplate.execute(status -> insertChunk(candidates));
+            imported = registeredLines.size();
+            for (Row row : candidates) {
+                if (!registeredLines.contains(row.line())) {
+                    errors.add(BorrowerDto.ImportEvent.error(row.line(), "Email already registered"));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Borrower import of lines {} to {} failed and was rolled back",
+                    candidates.get(0).line(), candidates.get(candidates.size() - 1).line(), e);
+            imported = 0;
+            for (Row row : candidates) {
+                // Not stored, so a later row with the same email is not a duplicate
+                seenEmails.remove(row.request().getEmail());
+                errors.add(BorrowerDto.ImportEvent.error(row.line(),
+                        "Not imported: the chunk could not be stored and was rolled back"));
+            }
+        }
+        errors.sort(Comparator.comparing(BorrowerDto.ImportEvent::getLine));
+        progress.report(listener, errors, imported);
+        listener.accept(BorrowerDto.ImportEvent.counters(BorrowerDto.ImportEventType.PROGRESS,
+                progress.processed, progress.imported, progress.failed));
+    }
+
+    // Returns the lines of the rows inserted; rows whose email is already registered are skipped
+    private Set<Long> insertChunk(List<Row> candidates) {
+        Set<String> existingEmails = new HashSet<>(borrowerRepository.findExistingEmails(
+                candidates.stream().map(row -> row.request().getEmail()).toList()));
+
+        Set<Long> registered = new HashSet<>();
+        List<Borrower> borrowers = new ArrayList<>(candidates.size());
+        for (Row row : candidates) {
+            if (existingEmails.contains(row.request().getEmail())) {
+                continue;
+            }
+            Borrower borrower = new Borrower();
+            borrower.setName(row.request().getName());
+            borrower.setEmail(row.request().getEmail());
+            borrowers.add(borrower);
+            registered.add(row.line());
+        }
+
+        // Flushed as batched inserts; clearing keeps the persistence context from growing across chunks
+        borrowerRepository.saveAll(borrowers);
+        entityManager.flush();
+        entityManager.clear();
+        catalogVersions.changed(CatalogVersions.Catalog.BORROWERS);
+        return registered;
+    }
+
+    private BorrowerDto.RegisterRequest parse(String line, BorrowerDto.ImportFormat format)
+            throws JsonProcessingException {
+        if (format == BorrowerDto.ImportFormat.NDJSON) {
+            return objectMapper.readValue(line, BorrowerDto.RegisterRequest.class);
+        }
+        List<String> fields = parseCsvLine(line);
+        if (fields.size() != 2) {
+            throw new IllegalArgumentException("Expected 2 columns but found " + fields.size());
+        }
+        BorrowerDto.RegisterRequest request = new BorrowerDto.RegisterRequest();
+        request.setName(fields.get(0).trim());
+        request.setEmail(fields.get(1).trim());
+        return request;
+    }
+
+    /**
+     * Splits one CSV line into fields, honouring double-quoted fields and escaped quotes.
+     */
+    private List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record Row(long line, BorrowerDto.RegisterRequest request) {
+    }
+
+    private static class Progress {
+        private long processed;
+        private long imported;
+        private long failed;
+
+        private void fail(Consumer<BorrowerDto.ImportEvent> listener, long line, String message) {
+            processed++;
+            failed++;
+            listener.accept(BorrowerDto.ImportEvent.error(line, message));
+        }
+
+        private void report(Consumer<BorrowerDto.ImportEvent> listener, List<BorrowerDto.ImportEvent> errors,
+                            int count) {
+            processed += errors.size() + count;
+            failed += errors.size();
+            imported += count;
+            errors.forEach(listener);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.book_borrowing_system.service;
+
+import com.example.book_borrowing_system.config.LoanProperties;
+import com.example.book_borrowing_system.dto.BookBorrowDto;
+import com.example.book_borrowing_system.dto.CursorPage;
+import com.example.book_borrowing_system.exception.ResourceNotFoundException;
+import com.example.book_borrowing_system.repository.BookBorrowRepository;
+import com.example.book_borrowing_system.repository.BorrowerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads the loans of a single borrower.
+ * Loans are read as projections joined to the book in one query, so no entities are hydrated
+ * and the cost depends on the page size rather than on the length of the borrower's history.
+ */
+@Service
+@RequiredArgsConstructor
+public class BorrowerLoanService {
+
+    private final BorrowerRepository borrowerRepository;
+    private final BookBorrowRepository bookBorrowRepository;
+    private final LoanProperties loanProperties;
+
+    /**
+     * Retrieves the books a borrower currently has on loan, oldest loan first.
+     * @param borrowerId the ID of the borrower
+     * @return the borrower's active loans
+     * @throws ResourceNotFoundException if the borrower does not exist
+     */
+    @Transactional(readOnly = true)
+    public List<BookBorrowDto.LoanResponse> getActiveLoans(Long borrowerId) {
+        requireBorrower(borrowerId);
+        LocalDateTime now = LocalDateTime.now();
+        return bookBorrowRepository.findActiveLoansByBorrowerId(borrowerId).stream()
+                .map(loan -> toResponse(loan, now))
+                .toList();
+    }
+
+    /**
+     * Retrieves one page of a borrower's loans, returned and active, newest first.
+     * @param borrowerId the ID of the borrower
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of loans on the page
+     * @return the page of loans and the cursor of the next page
+     * @throws ResourceNotFoundException if the borrower does not exist
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookBorrowDto.LoanResponse> getLoanHistory(Long borrowerId, String cursor, int size) {
+        requireBorrower(borrowerId);
+        // History is read newest first, so the first page starts below every ID
+        long beforeId = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : CursorPage.decode(cursor);
+        List<BookBorrowDto.LoanSummary> rows =
+                bookBorrowRepository.findLoansByBorrowerIdBefore(borrowerId, beforeId, Limit.of(size + 1));
+
+        CursorPage<BookBorrowDto.LoanSummary> page = CursorPage.of(rows, size, BookBorrowDto.LoanSummary::getId);
+        LocalDateTime now = LocalDateTime.now();
+        List<BookBorrowDto.LoanResponse> loans = page.getItems().stream()
+                .map(loan -> toResponse(loan, now))
+                .toList();
+        return new CursorPage<>(loans, page.getNextCursor());
+    }
+
+    private void requireBorrower(Long borrowerId) {
+        if (!borrowerRepository.existsById(borrowerId)) {
+            throw new ResourceNotFoundException("Borrower not found with id: " + borrowerId);
+        }
+    }
+
+    private BookBorrowDto.LoanResponse toResponse(BookBorrowDto.LoanSummary loan, LocalDateTime now) {
+        BookBorrowDto.LoanResponse response = new BookBorrowDto.LoanResponse();
+        response.setId(loan.getId());
+        response.setBookId(loan.getBookId());
+        response.setIsbn(loan.getIsbn());
+        response.setTitle(loan.getTitle());
+        response.setAuthor(loan.getAuthor());
+        response.setBorrowDate(loan.getBorrowDate());
+        response.setReturnDate(loan.getReturnDate());
+
+        if (loan.getReturnDate() == null) {
+            LocalDateTime expectedReturnDate = loan.getBorrowDate().plus(loanProperties.getPeriod());
+            response.setExpectedReturnDate(expectedReturnDate);
+            response.setOverdue(now.isAfter(expectedReturnDate));
+        }
+        return response;
+    }
+}
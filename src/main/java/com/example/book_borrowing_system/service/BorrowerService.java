@@ -1,10 +1,13 @@
 package com.example.book_borrowing_system.service;
 
+import com.example.book_borrowing_system.cache.CatalogVersions;
+import com.example.book_borrowing_system.dto.CursorPage;
 import com.example.book_borrowing_system.model.Borrower;
 import com.example.book_borrowing_system.repository.BorrowerRepository;
 import com.example.book_borrowing_system.exception.ResourceNotFoundException;
 import com.example.book_borrowing_system.exception.DuplicateResourceException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -14,6 +17,7 @@ import java.util.List;
 public class BorrowerService {
 
     private final BorrowerRepository borrowerRepository;
+    private final CatalogVersions catalogVersions;
 
     /**
      * Registers a new borrower by validating the provided name and email.
@@ -40,15 +44,21 @@ public class BorrowerService {
         Borrower borrower = new Borrower();
         borrower.setName(name);
         borrower.setEmail(email);
-        return borrowerRepository.save(borrower);
+        Borrower saved = borrowerRepository.save(borrower);
+        catalogVersions.changed(CatalogVersions.Catalog.BORROWERS);
+        return saved;
     }
 
     /**
-     * Retrieves all borrowers from the repository.
-     * @return a list of all borrowers
+     * Retrieves one page of borrowers ordered by ID using keyset pagination.
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of borrowers on the page
+     * @return the page of borrowers and the cursor of the next page
      */
-    public List<Borrower> getAllBorrowers() {
-        return borrowerRepository.findAll();
+    public CursorPage<Borrower> getBorrowersPage(String cursor, int size) {
+        long afterId = CursorPage.decode(cursor);
+        List<Borrower> borrowers = borrowerRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size + 1));
+        return CursorPage.of(borrowers, size, Borrower::getId);
     }
 
     /**
@@ -0,0 +1,113 @@
+package com.example.book_borrowing_system.service;
+
+import com.example.book_borrowing_system.config.LoanProperties;
+import com.example.book_borrowing_system.config.ReadProperties;
+import com.example.book_borrowing_system.dto.BookDto;
+import com.example.book_borrowing_system.dto.BorrowerDto;
+import com.example.book_borrowing_system.exception.ResourceNotFoundException;
+import com.example.book_borrowing_system.repository.BookRepository;
+import com.example.book_borrowing_system.repository.BorrowerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Read-only queries behind the streaming read API.
+ * Rows are read as projections in keyset chunks, each in its own short read-only transaction, and handed to the
+ * sink between chunks. A slow client therefore holds a request thread while its response drains, but never a
+ * database connection, and the next chunk is only read once the previous one has been written.
+ * Deliberately not transactional: a surrounding transaction would pin one connection for the whole stream.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogReadService {
+
+    private final BookRepository bookRepository;
+    private final BorrowerRepository borrowerRepository;
+    private final LoanProperties loanProperties;
+    private final ReadProperties readProperties;
+
+    /**
+     * Streams copies with their borrow status, ordered by ID.
+     * @param afterId the ID after which to start
+     * @param limit the maximum number of copies to stream
+     * @param sink receives each copy; called once per row, flushed by the caller as it sees fit
+     */
+    public void streamBooks(long afterId, long limit, Consumer<BookDto.StatusResponse> sink) {
+        LocalDateTime now = LocalDateTime.now();
+        streamInChunks(afterId, limit,
+                (after, chunk) -> bookRepository.findStatusesAfter(after, Limit.of(chunk)),
+                BookDto.StatusSummary::getId, summary -> sink.accept(toResponse(summary, now)));
+    }
+
+    /**
+     * Retrieves every copy of a title with its borrow status.
+     * @param isbn the ISBN of the title
+     * @return the copies ordered by ID
+     * @throws ResourceNotFoundException if no copy of the title exists
+     */
+    public List<BookDto.StatusResponse> getCopies(String isbn) {
+        List<BookDto.StatusSummary> copies = bookRepository.findStatusesByIsbn(isbn);
+        if (copies.isEmpty()) {
+            throw new ResourceNotFoundException("Book not found with ISBN: " + isbn);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return copies.stream().map(copy -> toResponse(copy, now)).toList();
+    }
+
+    /**
+     * Streams borrowers with their number of active loans, ordered by ID.
+     * @param afterId the ID after which to start
+     * @param limit the maximum number of borrowers to stream
+     * @param sink receives each borrower
+     */
+    public void streamBorrowers(long afterId, long limit, Consumer<BorrowerDto.StatusResponse> sink) {
+        streamInChunks(afterId, limit,
+                (after, chunk) -> borrowerRepository.findStatusesAfter(after, Limit.of(chunk)),
+                BorrowerDto.StatusResponse::getId, sink);
+    }
+
+    private <T> void streamInChunks(long afterId, long limit, ChunkReader<T> reader,
+                                    Function<T, Long> idExtractor, Consumer<T> sink) {
+        long remaining = limit;
+        long after = afterId;
+        while (remaining > 0) {
+            int chunkSize = (int) Math.min(readProperties.getChunkSize(), remaining);
+            List<T> rows = reader.read(after, chunkSize);
+            rows.forEach(sink);
+            if (rows.size() < chunkSize) {
+                return;
+            }
+            remaining -= rows.size();
+            after = idExtractor.apply(rows.get(rows.size() - 1));
+        }
+    }
+
+    private BookDto.StatusResponse toResponse(BookDto.StatusSummary summary, LocalDateTime now) {
+        BookDto.StatusResponse response = new BookDto.StatusResponse();
+        response.setId(summary.getId());
+        response.setIsbn(summary.getIsbn());
+        response.setTitle(summary.getTitle());
+        response.setAuthor(summary.getAuthor());
+        response.setAvailable(summary.isAvailable());
+        response.setBorrowerId(summary.getBorrowerId());
+        response.setBorrowDate(summary.getBorrowDate());
+
+        if (summary.getBorrowDate() != null) {
+            LocalDateTime expectedReturnDate = summary.getBorrowDate().plus(loanProperties.getPeriod());
+            response.setExpectedReturnDate(expectedReturnDate);
+            response.setOverdue(now.isAfter(expectedReturnDate));
+        }
+        return response;
+    }
+
+    @FunctionalInterface
+    private interface ChunkReader<T> {
+        List<T> read(long afterId, int size);
+    }
+}
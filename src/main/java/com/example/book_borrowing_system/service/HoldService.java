@@ -0,0 +1,257 @@
+package com.example.book_borrowing_system.service;
+
+import com.example.book_borrowing_system.cache.BookIsbnCache;
+import com.example.book_borrowing_system.cache.CatalogVersions;
+import com.example.book_borrowing_system.config.HoldProperties;
+import com.example.book_borrowing_system.dto.BookDto;
+import com.example.book_borrowing_system.dto.HoldDto;
+import com.example.book_borrowing_system.exception.DuplicateResourceException;
+import com.example.book_borrowing_system.exception.ResourceNotFoundException;
+import com.example.book_borrowing_system.feed.AvailabilityStream;
+import com.example.book_borrowing_system.feed.CatalogChangeFeed;
+import com.example.book_borrowing_system.model.BookHold;
+import com.example.book_borrowing_system.model.CatalogChange;
+import com.example.book_borrowing_system.repository.BookHoldRepository;
+import com.example.book_borrowing_system.repository.BookRepository;
+import com.example.book_borrowing_system.repository.BorrowerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Queues borrowers for titles that have no copy available.
+ * A return hands the copy straight to the oldest waiting hold inside the returning transaction, so waiters
+ * never race each other for it: the only writer is the return, and the copy stays unavailable to everyone
+ * else until the holder picks it up or the pickup window expires.
+ * <p>
+ * Placing a hold and handing a copy to the queue both lock the title first. A hold placed while a copy comes
+ * back is therefore either seen by the hand-off or sees the copy available, and is never left waiting while
+ * a copy sits on the shelf.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HoldService {
+
+    private final BookHoldRepository bookHoldRepository;
+    private final BookRepository bookRepository;
+    private final BorrowerRepository borrowerRepository;
+    private final BookIsbnCache bookIsbnCache;
+    private final CatalogVersions catalogVersions;
+    private final CatalogChangeFeed catalogChangeFeed;
+    private final AvailabilityStream availabilityStream;
+    private final HoldProperties holdProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Places a borrower in the queue for a title.
+     * @param borrowerId the ID of the borrower
+     * @param isbn the ISBN of the title
+     * @return the waiting hold with its place in the queue
+     * @throws ResourceNotFoundException if the borrower or the title does not exist
+     * @throws IllegalStateException if a copy is available, in which case it should be borrowed instead
+     * @throws DuplicateResourceException if the borrower already holds the title
+     */
+    @Transactional
+    public HoldDto.Response placeHold(Long borrowerId, String isbn) {
+        // Holds of one borrower are placed one at a time, so the duplicate check below cannot race its insert
+        if (borrowerRepository.lockById(borrowerId).isEmpty()) {
+            throw new ResourceNotFoundException("Borrower not found");
+        }
+        if (bookRepository.lockTitle(isbn).isEmpty()) {
+            throw new ResourceNotFoundException("Book not found with ISBN: " + isbn);
+        }
+        BookDto.Availability availability = bookRepository.findAvailabilityByIsbn(isbn)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ISBN: " + isbn));
+        if (availability.getAvailableCopies() > 0) {
+            throw new IllegalStateException("A copy of this book is available for borrowing");
+        }
+        if (bookHoldRepository.existsOpenHold(borrowerId, isbn)) {
+            throw new DuplicateResourceException("Borrower already has a hold on this book");
+        }
+
+        BookHold hold = new BookHold();
+        hold.setBorrower(borrowerRepository.getReferenceById(borrowerId));
+        hold.setIsbn(isbn);
+        hold.setStatus(BookHold.Status.WAITING);
+        hold.setPlacedAt(LocalDateTime.now());
+        return toResponse(bookHoldRepository.save(hold));
+    }
+
+    /**
+     * Retrieves a hold with its current place in the queue.
+     * @param holdId the ID of the hold
+     * @return the hold
+     * @throws ResourceNotFoundException if the hold does not exist
+     */
+    @Transactional(readOnly = true)
+    public HoldDto.Response getHold(Long holdId) {
+        return toResponse(findHold(holdId));
+    }
+
+    /**
+     * Cancels a waiting or ready hold. A copy that was set aside for it passes to the next holder.
+     * @param borrowerId the ID of the borrower cancelling the hold
+     * @param holdId the ID of the hold
+     * @return the cancelled hold
+     * @throws ResourceNotFoundException if the hold does not exist
+     * @throws IllegalStateException if the hold belongs to another borrower or is no longer open
+     */
+    @Transactional
+    public HoldDto.Response cancelHold(Long borrowerId, Long holdId) {
+        BookHold hold = findHold(holdId);
+        if (!hold.getBorrower().getId().equals(borrowerId)) {
+            throw new IllegalStateException("Hold was not placed by this borrower");
+        }
+        BookHold.Status status = hold.getStatus();
+        if ((status != BookHold.Status.WAITING && status != BookHold.Status.READY)
+                || bookHoldRepository.transition(holdId, status, BookHold.Status.CANCELLED) == 0) {
+            throw new IllegalStateException("Hold is no longer open");
+        }
+        if (status == BookHold.Status.READY) {
+            releaseCopy(hold.getBookId());
+        }
+        hold.setStatus(BookHold.Status.CANCELLED);
+        return toResponse(hold);
+    }
+
+    /**
+     * Hands a returned or newly registered copy to the oldest waiting hold on its title, holding the title lock
+     * until the calling transaction ends. Must run in that transaction.
+     * A waiting hold cancelled concurrently is skipped for the next one.
+     * @param bookId the ID of the copy, which must be flushed
+     * @return true if the copy was set aside for a hold, false if nobody is waiting and it should become available
+     */
+    public boolean handOff(Long bookId) {
+        bookRepository.lockTitlesOf(List.of(bookId));
+        return promoteNext(bookId);
+    }
+
+    /**
+     * Hands several returned or newly registered copies to waiting holds, locking their titles together and
+     * looking up with one query which titles have a queue. Must run in the calling transaction.
+     * @param bookIds the IDs of the copies, which must be flushed
+     * @return the IDs of the copies set aside for holds; the others should become available
+     */
+    public Set<Long> handOffAll(Collection<Long> bookIds) {
+        Set<Long> handedOff = new HashSet<>();
+        if (bookIds.isEmpty()) {
+            return handedOff;
+        }
+        bookRepository.lockTitlesOf(bookIds);
+        for (Long bookId : bookHoldRepository.findCopiesWithWaitingHolds(bookIds)) {
+            if (promoteNext(bookId)) {
+                handedOff.add(bookId);
+            }
+        }
+        return handedOff;
+    }
+
+    /**
+     * Finds the copies among the given books that are set aside for a borrower, in one query.
+     * @param borrowerId the ID of the borrower
+     * @param bookIds the IDs of the copies to look for
+     * @return the IDs of the copies the borrower can pick up
+     */
+    public Set<Long> findReadyCopies(Long borrowerId, Collection<Long> bookIds) {
+        return new HashSet<>(bookHoldRepository.findReadyCopies(borrowerId, bookIds, LocalDateTime.now()));
+    }
+
+    /**
+     * Picks up a copy set aside for a borrower. Must run in the borrowing transaction.
+     * @param borrowerId the ID of the borrower
+     * @param bookId the ID of the copy
+     * @return true if the copy was held for the borrower and its pickup window is still open
+     */
+    public boolean pickUp(Long borrowerId, Long bookId) {
+        return bookHoldRepository.fulfill(borrowerId, bookId, LocalDateTime.now()) == 1;
+    }
+
+    /**
+     * Finds the copy of a title set aside for a borrower.
+     * @param borrowerId the ID of the borrower
+     * @param isbn the ISBN of the title
+     * @return the ID of the held copy, if the borrower has a ready hold on the title
+     */
+    public Optional<Long> findReadyCopy(Long borrowerId, String isbn) {
+        return bookHoldRepository.findReadyCopy(borrowerId, isbn, LocalDateTime.now());
+    }
+
+    /**
+     * Expires ready holds whose pickup window has passed and passes their copies on, each in its own transaction.
+     */
+    @Scheduled(fixedDelayString = "${library.hold.expiry-check-interval:1m}")
+    public void expireHolds() {
+        List<BookHold> expired = bookHoldRepository.findExpired(
+                LocalDateTime.now(), Limit.of(holdProperties.getExpiryBatchSize()));
+        for (BookHold hold : expired) {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Skipped if the holder picked the copy up or cancelled meanwhile
+                if (bookHoldRepository.transition(hold.getId(), BookHold.Status.READY, BookHold.Status.EXPIRED) == 1) {
+                    releaseCopy(hold.getBookId());
+                }
+            });
+        }
+        if (!expired.isEmpty()) {
+            log.info("Expired {} holds", expired.size());
+        }
+    }
+
+    // Sets a copy aside for the oldest waiting hold on its title; the caller holds the title lock
+    private boolean promoteNext(Long bookId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(holdProperties.getPickupWindow());
+        while (true) {
+            List<Long> waiting = bookHoldRepository.findWaitingForCopy(bookId, Limit.of(1));
+            if (waiting.isEmpty()) {
+                return false;
+            }
+            if (bookHoldRepository.promote(waiting.get(0), bookId, now, expiresAt) == 1) {
+                return true;
+            }
+        }
+    }
+
+    // Passes a copy that was set aside for a hold to the next holder, or makes it available
+    private void releaseCopy(Long bookId) {
+        if (!handOff(bookId)) {
+            bookRepository.markAvailable(bookId);
+            availabilityStream.publishAfterCommit(bookId, true);
+        }
+        bookIsbnCache.evictBook(bookId);
+        catalogVersions.changed(CatalogVersions.Catalog.BOOKS);
+        catalogChangeFeed.record(bookId, CatalogChange.Type.RELEASED);
+    }
+
+    private BookHold findHold(Long holdId) {
+        return bookHoldRepository.findById(holdId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hold not found"));
+    }
+
+    private HoldDto.Response toResponse(BookHold hold) {
+        HoldDto.Response response = new HoldDto.Response();
+        response.setId(hold.getId());
+        response.setBorrowerId(hold.getBorrower().getId());
+        response.setIsbn(hold.getIsbn());
+        response.setStatus(hold.getStatus());
+        if (hold.getStatus() == BookHold.Status.WAITING) {
+            response.setPosition(bookHoldRepository.countWaitingAhead(hold.getIsbn(), hold.getId()) + 1);
+        }
+        response.setBookId(hold.getBookId());
+        response.setPlacedAt(hold.getPlacedAt());
+        response.setReadyAt(hold.getReadyAt());
+        response.setExpiresAt(hold.getExpiresAt());
+        return response;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.book_borrowing_system.service;
+
+import com.example.book_borrowing_system.config.LoanProperties;
+import com.example.book_borrowing_system.dto.BookBorrowDto;
+import com.example.book_borrowing_system.dto.CursorPage;
+import com.example.book_borrowing_system.repository.BookBorrowRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Reports loans that are past their expected return date.
+ * Overdue loans are selected in the database by comparing the borrow date with a cutoff derived from the
+ * configured loan period, so the report reads only the overdue part of the active loans and never touches
+ * the book table.
+ */
+@Service
+@RequiredArgsConstructor
+public class OverdueLoanService {
+
+    private final BookBorrowRepository bookBorrowRepository;
+    private final LoanProperties loanProperties;
+
+    /**
+     * Retrieves a page of overdue loans, most overdue first.
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of loans on the page
+     * @return the page of overdue loans
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookBorrowDto.OverdueResponse> getOverdueLoans(String cursor, int size) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(loanProperties.getPeriod());
+        CursorPage.TimestampKey after = CursorPage.decodeTimestampKey(cursor);
+
+        List<BookBorrowDto.Summary> rows = after == null
+                ? bookBorrowRepository.findOverdue(cutoff, Limit.of(size + 1))
+                : bookBorrowRepository.findOverdueAfter(cutoff, after.timestamp(), after.id(), Limit.of(size + 1));
+
+        CursorPage<BookBorrowDto.Summary> page =
+                CursorPage.of(rows, size, BookBorrowDto.Summary::getBorrowDate, BookBorrowDto.Summary::getId);
+        List<BookBorrowDto.OverdueResponse> loans = page.getItems().stream()
+                .map(row -> toOverdueResponse(row, now))
+                .toList();
+        return new CursorPage<>(loans, page.getNextCursor());
+    }
+
+    /**
+     * Retrieves a page of borrowers with overdue loans, ordered by borrower ID.
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of borrowers on the page
+     * @return the page of borrowers with their overdue loan count and oldest borrow date
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookBorrowDto.OverdueBorrowerSummary> getOverdueBorrowers(String cursor, int size) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(loanProperties.getPeriod());
+        List<BookBorrowDto.OverdueBorrowerSummary> rows = bookBorrowRepository.findOverdueBorrowers(
+                cutoff, CursorPage.decode(cursor), Limit.of(size + 1));
+        return CursorPage.of(rows, size, BookBorrowDto.OverdueBorrowerSummary::getBorrowerId);
+    }
+
+    private BookBorrowDto.OverdueResponse toOverdueResponse(BookBorrowDto.Summary row, LocalDateTime now) {
+        LocalDateTime expectedReturnDate = row.getBorrowDate().plus(loanProperties.getPeriod());
+
+        BookBorrowDto.OverdueResponse response = new BookBorrowDto.OverdueResponse();
+        response.setId(row.getId());
+        response.setBookId(row.getBookId());
+        response.setBorrowerId(row.getBorrowerId());
+        response.setBorrowerName(row.getBorrowerName());
+        response.setBorrowerEmail(row.getBorrowerEmail());
+        response.setBorrowDate(row.getBorrowDate());
+        response.setExpectedReturnDate(expectedReturnDate);
+        response.setDaysOverdue(ChronoUnit.DAYS.between(expectedReturnDate, now));
+        return response;
+    }
+}
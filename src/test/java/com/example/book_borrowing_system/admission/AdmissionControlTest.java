@@ -0,0 +1,109 @@
+package com.example.book_borrowing_system.admission;
+
+import com.example.book_borrowing_system.config.AdmissionProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControlTest {
+
+    private static final String ROUTE = "POST /api/books/{bookId}/borrow";
+
+    private static AdmissionProperties properties(int limit, int queueSize, Duration queueWait) {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setInitialLimit(limit);
+        properties.setMaxQueueSize(queueSize);
+        properties.setMaxQueueWait(queueWait);
+        return properties;
+    }
+
+    private static int limitOf(AdmissionControl admissionControl) {
+        return admissionControl.snapshot().getRoutes().get(0).getLimit();
+    }
+
+    // Tests if a request beyond the limit is rejected with 429 at once when the queue is full
+    @Test
+    void acquire_QueueFull_RejectsWithTooManyRequests() {
+        AdmissionControl admissionControl = new AdmissionControl(properties(1, 0, Duration.ofSeconds(10)));
+        admissionControl.acquire(ROUTE);
+
+        AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class,
+                () -> admissionControl.acquire(ROUTE));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, e.getStatus());
+        assertEquals(1, admissionControl.snapshot().getRoutes().get(0).getRejected());
+    }
+
+    // Tests if a queued request is rejected with 503 when no slot frees up in time
+    @Test
+    void acquire_WaitTimesOut_RejectsWithServiceUnavailable() {
+        AdmissionControl admissionControl = new AdmissionControl(properties(1, 1, Duration.ofMillis(50)));
+        admissionControl.acquire(ROUTE);
+
+        AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class,
+                () -> admissionControl.acquire(ROUTE));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+        assertEquals(0, admissionControl.snapshot().getRoutes().get(0).getQueued());
+    }
+
+    // Tests if a queued request is admitted as soon as a running one completes
+    @Test
+    void acquire_SlotReleased_AdmitsWaiter() throws Exception {
+        AdmissionControl admissionControl = new AdmissionControl(properties(1, 1, Duration.ofSeconds(10)));
+        AdmissionControl.Permit running = admissionControl.acquire(ROUTE);
+
+        CompletableFuture<AdmissionControl.Permit> waiter =
+                CompletableFuture.supplyAsync(() -> admissionControl.acquire(ROUTE));
+        while (admissionControl.snapshot().getRoutes().get(0).getQueued() == 0) {
+            Thread.sleep(5);
+        }
+        assertFalse(waiter.isDone());
+
+        admissionControl.release(running, TimeUnit.MILLISECONDS.toNanos(1), false);
+        assertNotNull(waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, admissionControl.snapshot().getRoutes().get(0).getInFlight());
+    }
+
+    // Tests if the total limit holds requests of other routes back even when their own limit has room
+    @Test
+    void acquire_TotalLimitReached_QueuesOtherRoutes() {
+        AdmissionProperties properties = properties(4, 1, Duration.ofMillis(50));
+        properties.setMaxTotalInFlight(1);
+        AdmissionControl admissionControl = new AdmissionControl(properties);
+        admissionControl.acquire(ROUTE);
+
+        assertThrows(AdmissionRejectedException.class, () -> admissionControl.acquire("POST /api/borrowers"));
+    }
+
+    // Tests if slow completions shrink the limit, once per target interval, and fast saturated ones grow it again
+    @Test
+    void release_AdaptsLimitToLatency() {
+        AdmissionControl admissionControl = new AdmissionControl(properties(4, 0, Duration.ofSeconds(10)));
+        long slow = TimeUnit.SECONDS.toNanos(1);
+        long fast = TimeUnit.MILLISECONDS.toNanos(1);
+
+        admissionControl.release(admissionControl.acquire(ROUTE), slow, false);
+        assertEquals(3, limitOf(admissionControl));
+        admissionControl.release(admissionControl.acquire(ROUTE), slow, false);
+        assertEquals(3, limitOf(admissionControl));
+
+        // Completions below the limit say nothing about whether more concurrency would help
+        admissionControl.release(admissionControl.acquire(ROUTE), fast, false);
+        assertEquals(3, limitOf(admissionControl));
+
+        for (int round = 0; round < 5; round++) {
+            AdmissionControl.Permit[] permits = new AdmissionControl.Permit[limitOf(admissionControl)];
+            for (int i = 0; i < permits.length; i++) {
+                permits[i] = admissionControl.acquire(ROUTE);
+            }
+            for (AdmissionControl.Permit permit : permits) {
+                admissionControl.release(permit, fast, false);
+            }
+        }
+        assertTrue(limitOf(admissionControl) > 3);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.book_borrowing_system.benchmark;
+
+import com.example.book_borrowing_system.dto.BookDto;
+import com.example.book_borrowing_system.model.Book;
+import com.example.book_borrowing_system.repository.BookRepository;
+import com.example.book_borrowing_system.service.BookImportService;
+import com.example.book_borrowing_system.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares registration throughput of the single-item path with the bulk path.
+ * Run with ./gradlew benchmark; the row count can be changed with -Dbenchmark.rows.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class BookRegistrationBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 5000);
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAllByIdInBatch(createdIds);
+        createdIds.clear();
+    }
+
+    @Test
+    void registerBooks_BulkVersusSingle() {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            Book book = bookService.registerBook(isbn("S", i), "Single Title " + i, "Benchmark Author");
+            createdIds.add(book.getId());
+        }
+        double singleRate = rowsPerSecond(start);
+
+        List<BookDto.RegisterRequest> requests = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            BookDto.RegisterRequest request = new BookDto.RegisterRequest();
+            request.setIsbn(isbn("B", i));
+            request.setTitle("Bulk Title " + i);
+            request.setAuthor("Benchmark Author");
+            requests.add(request);
+        }
+        start = System.nanoTime();
+        BookDto.BulkRegisterResponse response = bookImportService.registerBooks(requests);
+        double bulkRate = rowsPerSecond(start);
+        response.getResults().forEach(result -> createdIds.add(result.getBookId()));
+
+        assertEquals(ROWS, response.getCreated());
+        System.out.printf("Book registration, %d rows: single %.0f rows/s, bulk %.0f rows/s (%.1fx)%n",
+                ROWS, singleRate, bulkRate, bulkRate / singleRate);
+    }
+
+    private static String isbn(String prefix, int i) {
+        return String.format("BM%s-%09d", prefix, i);
+    }
+
+    private static double rowsPerSecond(long startNanos) {
+        return ROWS / ((System.nanoTime() - startNanos) / 1_000_000_000.0);
+    }
+}
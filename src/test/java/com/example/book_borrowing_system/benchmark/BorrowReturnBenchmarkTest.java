@@ -0,0 +1,117 @@
+package com.example.book_borrowing_system.benchmark;
+
+import com.example.book_borrowing_system.model.Book;
+import com.example.book_borrowing_system.model.Borrower;
+import com.example.book_borrowing_system.repository.BookBorrowRepository;
+import com.example.book_borrowing_system.repository.BookRepository;
+import com.example.book_borrowing_system.repository.BorrowerRepository;
+import com.example.book_borrowing_system.service.BookService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures borrow/return throughput when many threads compete for a small set of books.
+ * Run with ./gradlew benchmark; threads, books and duration can be changed with
+ * -Dbenchmark.threads, -Dbenchmark.books and -Dbenchmark.seconds.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class BorrowReturnBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 64);
+    private static final int BOOKS = Integer.getInteger("benchmark.books", 8);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 10);
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private BookBorrowRepository bookBorrowRepository;
+
+    @Test
+    void borrowReturn_UnderContention() throws Exception {
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book();
+            book.setIsbn(String.format("BMC-%09d", i));
+            book.setTitle("Contended Title " + i);
+            book.setAuthor("Benchmark Author");
+            bookIds.add(bookRepository.save(book).getId());
+        }
+        List<Long> borrowerIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Borrower borrower = new Borrower();
+            borrower.setName("Benchmark Borrower " + i);
+            borrower.setEmail("benchmark.borrower." + i + "@example.com");
+            borrowerIds.add(borrowerRepository.save(borrower).getId());
+        }
+
+        AtomicLong borrows = new AtomicLong();
+        AtomicLong rejections = new AtomicLong();
+        AtomicLong returns = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Long borrowerId = borrowerIds.get(t);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        Long bookId = bookIds.get(ThreadLocalRandom.current().nextInt(BOOKS));
+                        try {
+                            bookService.borrowBook(borrowerId, bookId);
+                            borrows.incrementAndGet();
+                        } catch (IllegalStateException e) {
+                            rejections.incrementAndGet();
+                            continue;
+                        }
+                        bookService.returnBook(borrowerId, bookId);
+                        returns.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(SECONDS + 60L, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Every successful borrow was returned, so no book may still have an open loan
+        for (Long bookId : bookIds) {
+            assertTrue(bookBorrowRepository.findActiveBookBorrow(bookId).isEmpty());
+        }
+        System.out.printf("Borrow/return, %d threads on %d books: %.0f borrow+return/s, %.0f rejected borrows/s%n",
+                THREADS, BOOKS, returns.get() / (double) SECONDS, rejections.get() / (double) SECONDS);
+
+        for (Long bookId : bookIds) {
+            bookBorrowRepository.deleteAllInBatch(bookBorrowRepository.findByBookId(bookId));
+        }
+        bookRepository.deleteAllByIdInBatch(bookIds);
+        borrowerRepository.deleteAllByIdInBatch(borrowerIds);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.book_borrowing_system.cache;
+
+import com.example.book_borrowing_system.config.IsbnCacheProperties;
+import com.example.book_borrowing_system.dto.CacheStats;
+import com.example.book_borrowing_system.exception.ResourceNotFoundException;
+import com.example.book_borrowing_system.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookIsbnCacheTest {
+
+    private BookIsbnCache cache;
+    private Book testBook;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BookIsbnCache(new IsbnCacheProperties());
+
+        testBook = new Book();
+        testBook.setId(1L);
+        testBook.setIsbn("1234567890");
+        testBook.setTitle("Test Book");
+        testBook.setAuthor("Test Author");
+        testBook.setAvailable(true);
+
+        loads = new AtomicInteger();
+    }
+
+    private Book load() {
+        loads.incrementAndGet();
+        return testBook;
+    }
+
+    @Test
+    void get_SecondLookup_IsServedFromCache() {
+        cache.get("1234567890", this::load);
+        Book result = cache.get("1234567890", this::load);
+
+        assertEquals("Test Book", result.getTitle());
+        assertEquals(1, loads.get());
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    void get_ReturnsCopies() {
+        cache.get("1234567890", this::load).setAvailable(false);
+
+        assertTrue(cache.get("1234567890", this::load).isAvailable());
+    }
+
+    @Test
+    void evictBook_NextLookupReloads() {
+        cache.get("1234567890", this::load);
+        testBook.setAvailable(false);
+
+        cache.evictBook(1L);
+
+        assertFalse(cache.get("1234567890", this::load).isAvailable());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_EvictedWhileLoading_DoesNotStoreStaleResult() {
+        // The write evicts after the lookup read the old state but before it stored it
+        cache.get("1234567890", () -> {
+            Book stale = load();
+            cache.evictIsbn("1234567890");
+            return stale;
+        });
+
+        cache.get("1234567890", this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_LoaderThrows_NothingIsCached() {
+        assertThrows(ResourceNotFoundException.class, () ->
+                cache.get("0000000000", () -> {
+                    throw new ResourceNotFoundException("Book not found with ISBN: 0000000000");
+                })
+        );
+        assertEquals(0, cache.stats().getSize());
+    }
+}
@@ -1,25 +1,106 @@
 package com.example.book_borrowing_system.controller;
 
+import com.example.book_borrowing_system.idempotency.IdempotencyFilter;
+import com.example.book_borrowing_system.idempotency.IdempotencyStore;
+import com.example.book_borrowing_system.model.Book;
+import com.example.book_borrowing_system.model.Borrower;
+import com.example.book_borrowing_system.model.IdempotencyRecord;
+import com.example.book_borrowing_system.repository.BookBorrowRepository;
+import com.example.book_borrowing_system.repository.BookRepository;
+import com.example.book_borrowing_system.repository.IdempotencyRecordRepository;
+import com.example.book_borrowing_system.service.BookService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
-@SpringBootTest
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "library.catalog.feed.settle-time=" + BookControllerTest.FEED_SETTLE_MILLIS + "ms"
+})
 @AutoConfigureMockMvc
+@Import(TestFixtures.class)
 class BookControllerTest {
 
+    static final long FEED_SETTLE_MILLIS = 1000;
+
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookBorrowRepository bookBorrowRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.cleanUp();
+    }
+
     @Test
     @Transactional
     // Tests if able to add new book successfully
@@ -95,4 +176,680 @@ class BookControllerTest {
                         .content(request))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @Transactional
+    // Tests that listing the catalog with history uses a bounded number of queries regardless of size
+    void getBooks_WithBorrowHistory_QueryCountIsBounded() throws Exception {
+        Borrower borrower = fixtures.borrower("Catalog Reader", "catalog.reader.test@example.com");
+
+        for (int i = 0; i < 20; i++) {
+            Book book = fixtures.book("978-0-00-0000" + String.format("%02d", i), "Catalog Book " + i,
+                    "Catalog Author");
+            if (i % 2 == 0) {
+                bookService.borrowBook(borrower.getId(), book.getId());
+            }
+        }
+
+        // Flush pending setup writes so only the listing's own queries are counted
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/books").param("withBorrowHistory", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.title == 'Catalog Book 0')].available").value(false))
+                .andExpect(jsonPath("$[?(@.title == 'Catalog Book 0')].borrowHistory[0].borrowerName")
+                        .value("Catalog Reader"))
+                .andExpect(jsonPath("$[?(@.title == 'Catalog Book 0')].expectedReturnDate").isNotEmpty());
+
+        // The catalog version, then one query each for books, active borrows and borrow history
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 4, "Expected a bounded number of queries but was " + statements);
+    }
+
+    @Test
+    @Transactional
+    // Tests that the catalog listing, borrower loans and loan history each issue a fixed number of statements
+    void listingAndLoanHistory_QueryCounts() throws Exception {
+        Borrower borrower = fixtures.borrower("Listed Reader", "listed.reader.test@example.com");
+
+        for (int i = 0; i < 10; i++) {
+            Book book = fixtures.book("978-0-00-0001" + String.format("%02d", i), "Listed Book " + i,
+                    "Listed Author");
+            bookService.borrowBook(borrower.getId(), book.getId());
+            if (i % 2 == 0) {
+                bookService.returnBook(borrower.getId(), book.getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        // Catalog version, page of books and the active borrows of the page, with borrow details
+        statistics.clear();
+        mockMvc.perform(get("/api/books").param("size", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.title == 'Listed Book 1')].expectedReturnDate").isNotEmpty());
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        // Catalog version, page of books and the whole borrow history of the page, borrowers included.
+        // Requests share the test transaction, so the version read above is cleared to be read again.
+        entityManager.clear();
+        statistics.clear();
+        mockMvc.perform(get("/api/books").param("size", "500").param("withBorrowHistory", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.title == 'Listed Book 0')].borrowHistory[0].borrowerName")
+                        .value("Listed Reader"));
+        assertEquals(4, statistics.getPrepareStatementCount());
+
+        // Borrower existence check and the open loans with their books
+        statistics.clear();
+        mockMvc.perform(get("/api/borrowers/" + borrower.getId() + "/loans"))
+                .andExpect(status().isOk());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        // Borrower existence check and one page of loan history
+        statistics.clear();
+        mockMvc.perform(get("/api/borrowers/" + borrower.getId() + "/loans/history"))
+                .andExpect(status().isOk());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @Transactional
+    // Tests that borrow, return and ISBN lookup issue a fixed number of statements and only load what they use
+    void borrowReturnAndLookup_QueryCounts() throws Exception {
+        Borrower borrower = fixtures.borrower("Counted Reader", "counted.reader.test@example.com");
+        Book book = fixtures.book("978-0-00-999999-9", "Counted Book", "Counted Author");
+
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        String borrowRequest = "{\"borrowerId\": " + borrower.getId() + "}";
+
+        // Claim update, borrower existence check and borrow insert; book and borrower stay unloaded
+        statistics.clear();
+        mockMvc.perform(post("/api/books/" + book.getId() + "/borrow")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(borrowRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.borrowerId").value(borrower.getId()))
+                .andExpect(jsonPath("$.bookId").value(book.getId()));
+        entityManager.flush();
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        // Active borrow lookup without its associations, the two conditional updates, the title lock and the
+        // hold queue lookup
+        entityManager.clear();
+        statistics.clear();
+        mockMvc.perform(post("/api/books/" + book.getId() + "/return")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(borrowRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.returnDate").isNotEmpty());
+        assertEquals(5, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+
+        // The catalog version and a single select by ISBN
+        statistics.clear();
+        mockMvc.perform(get("/api/books").param("isbn", "978-0-00-999999-9"))
+                .andExpect(status().isOk());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @Transactional
+    // Tests that a batch borrow and return report every item and use the same statements however many books succeed
+    void batchBorrowAndReturn_PartialResults_QueryCounts() throws Exception {
+        Borrower borrower = fixtures.borrower("Cart Reader", "cart.reader.test@example.com");
+        Borrower other = fixtures.borrower("Other Reader", "other.cart.reader.test@example.com");
+
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            bookIds.add(fixtures.book("978-0-00-00090" + i, "Cart Book " + i, "Cart Author").getId());
+        }
+        Book taken = fixtures.book("978-0-00-000909", "Taken Book", "Cart Author");
+        fixtures.borrow(taken, other, LocalDateTime.now());
+
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        List<Long> cart = new ArrayList<>(bookIds);
+        cart.add(taken.getId());
+        cart.add(Long.MAX_VALUE);
+        cart.add(bookIds.get(0));
+
+        // Borrower check, copy lock, hold and existence lookups for the failed items, claim, insert and borrow IDs
+        statistics.clear();
+        mockMvc.perform(post("/api/books/batch/borrow")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("borrowerId", borrower.getId(), "bookIds", cart))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.committed").value(true))
+                .andExpect(jsonPath("$.succeeded").value(5))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.results[0].status").value("BORROWED"))
+                .andExpect(jsonPath("$.results[4].borrowId").isNumber())
+                .andExpect(jsonPath("$.results[5].status").value("NOT_AVAILABLE"))
+                .andExpect(jsonPath("$.results[6].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.results[7].status").value("DUPLICATE"));
+        assertEquals(7, statistics.getPrepareStatementCount());
+        assertEquals(5, bookBorrowRepository.findActiveLoansByBorrowerId(borrower.getId()).size());
+
+        // Borrow lock, close, title locks, hold queue lookup and availability update
+        entityManager.clear();
+        statistics.clear();
+        cart = new ArrayList<>(bookIds);
+        cart.add(taken.getId());
+        mockMvc.perform(post("/api/books/batch/return")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("borrowerId", borrower.getId(), "bookIds", cart))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(5))
+                .andExpect(jsonPath("$.results[0].status").value("RETURNED"))
+                .andExpect(jsonPath("$.results[5].status").value("NOT_BORROWED"));
+        assertEquals(5, statistics.getPrepareStatementCount());
+        assertTrue(bookRepository.findAllById(bookIds).stream().allMatch(Book::isAvailable));
+    }
+
+    @Test
+    @Transactional
+    // Tests that an atomic batch borrows nothing when one of its books is unavailable
+    void batchBorrow_Atomic_RejectedAsAWhole() throws Exception {
+        Borrower borrower = fixtures.borrower("Atomic Reader", "atomic.reader.test@example.com");
+        Book free = fixtures.book("978-0-00-000910", "Free Book", "Cart Author");
+        Book taken = fixtures.book("978-0-00-000911", "Unavailable Book", "Cart Author", false);
+
+        mockMvc.perform(post("/api/books/batch/borrow")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "borrowerId", borrower.getId(),
+                                "bookIds", List.of(free.getId(), taken.getId()),
+                                "atomic", true))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.committed").value(false))
+                .andExpect(jsonPath("$.results[0].status").value("ROLLED_BACK"))
+                .andExpect(jsonPath("$.results[1].status").value("NOT_AVAILABLE"));
+        entityManager.clear();
+        assertTrue(bookRepository.findById(free.getId()).orElseThrow().isAvailable());
+        assertTrue(bookBorrowRepository.findByBookId(free.getId()).isEmpty());
+    }
+
+    @Test
+    // Tests that an unchanged listing is answered with 304 after reading only its version, and that a borrow
+    // changes the ETag. Not transactional: versions are bumped once the borrow commits.
+    void getBooks_ConditionalRequest_NotModifiedUntilCatalogChanges() throws Exception {
+        Long borrowerId = fixtures.borrower("Polling Reader", "polling.reader.test@example.com").getId();
+        Long bookId = fixtures.registeredBook("978-0-00-000500", "Polled Book", "Polled Author").getId();
+        String etag = mockMvc.perform(get("/api/books"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/books").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        mockMvc.perform(post("/api/books/" + bookId + "/borrow")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"borrowerId\": " + borrowerId + "}"))
+                .andExpect(status().isOk());
+
+        String changedEtag = mockMvc.perform(get("/api/books").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, changedEtag);
+    }
+
+    @Test
+    // Tests that the export streams one JSON document per book including its borrow history.
+    // Not transactional: the export runs on an async thread and must see committed data.
+    void exportBooks_StreamsNdjsonWithHistory() throws Exception {
+        Borrower borrower = fixtures.borrower("Export Reader", "export.reader.test@example.com");
+        Book borrowed = fixtures.book("978-0-00-000100", "Exported Borrowed Book", "Export Author");
+        fixtures.book("978-0-00-000101", "Exported Shelved Book", "Export Author");
+
+        bookService.borrowBook(borrower.getId(), borrowed.getId());
+        MvcResult result = mockMvc.perform(get("/api/books/export").param("withBorrowHistory", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines()
+                .filter(line -> line.contains("Exported"))
+                .toList();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"title\":\"Exported Borrowed Book\""));
+        assertTrue(lines.get(0).contains("\"borrowerName\":\"Export Reader\""));
+        assertTrue(lines.get(0).contains("\"available\":false"));
+        assertTrue(lines.get(1).contains("\"borrowHistory\":[]"));
+    }
+
+    @Test
+    @Transactional
+    // Tests that bulk registration reports created, conflicting and invalid items individually
+    void registerBooks_Bulk_ReportsPerItemResults() throws Exception {
+        mockMvc.perform(post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            {"isbn": "978-0-13-468599-1", "title": "Effective Java", "author": "Joshua Bloch"}
+                        """))
+                .andExpect(status().isOk());
+
+        String request = """
+            [
+                {"isbn": "978-0-13-468599-1", "title": "Effective Java", "author": "Joshua Bloch"},
+                {"isbn": "978-0-13-468599-1", "title": "Other Title", "author": "Joshua Bloch"},
+                {"isbn": "978-0-32-134960-2", "title": "Java Concurrency in Practice", "author": "Brian Goetz"},
+                {"isbn": "978-0-32-134960-2", "title": "Java Concurrency", "author": "Brian Goetz"},
+                {"isbn": "", "title": "No ISBN", "author": "Nobody"}
+            ]
+        """;
+
+        mockMvc.perform(post("/api/books/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].bookId").isNumber())
+                .andExpect(jsonPath("$.results[1].status").value("CONFLICT"))
+                .andExpect(jsonPath("$.results[2].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[3].status").value("CONFLICT"))
+                .andExpect(jsonPath("$.results[4].status").value("INVALID"))
+                .andExpect(jsonPath("$.results[4].message").value("ISBN is required"));
+
+        assertEquals(2, bookRepository.findByIsbn("978-0-13-468599-1").size());
+    }
+
+    @Test
+    // Tests that concurrent borrows of the same book lend it exactly once
+    void borrowBook_Contention_LendsExactlyOnce() throws Exception {
+        Long borrowerId = fixtures.borrower("Contention Reader", "contention.reader.test@example.com").getId();
+
+        Long bookId = fixtures.book("978-0-00-000200", "Contended Book", "Contention Author").getId();
+
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        bookService.borrowBook(borrowerId, bookId);
+                        successes.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rejections.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+
+            assertEquals(1, successes.get());
+            assertEquals(threads - 1, rejections.get());
+            assertEquals(1, bookBorrowRepository.findByBookId(bookId).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    // Tests that concurrent ISBN-level borrows hand out every copy exactly once
+    void borrowAnyCopy_Contention_LendsEachCopyOnce() throws Exception {
+        int copies = 5;
+        int threads = 20;
+        String isbn = "978-0-00-000300";
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < copies; i++) {
+            bookIds.add(fixtures.book(isbn, "Popular Book", "Popular Author").getId());
+        }
+        List<Long> borrowerIds = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            borrowerIds.add(fixtures.borrower("Copy Reader " + i, "copy.reader." + i + ".test@example.com")
+                    .getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Long> lentCopies = Collections.synchronizedList(new ArrayList<>());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long borrowerId : borrowerIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        lentCopies.add(bookService.borrowAnyCopy(borrowerId, isbn).getBook().getId());
+                    } catch (IllegalStateException e) {
+                        // All copies taken
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+
+            assertEquals(copies, lentCopies.size());
+            assertEquals(copies, new HashSet<>(lentCopies).size());
+            mockMvc.perform(get("/api/books/isbn/" + isbn + "/availability"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalCopies").value(copies))
+                    .andExpect(jsonPath("$.availableCopies").value(0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    // Tests that the change feed lists committed changes in order, with each book once at its latest change
+    void getChanges_CompactsChangesPerBook() throws Exception {
+        long since = drainChanges();
+        JsonNode feed;
+
+        Long borrowerId = fixtures.borrower("Feed Reader", "feed.reader.test@example.com").getId();
+        Long borrowedId = fixtures.registeredBook("978-0-00-000600", "Feed Book", "Feed Author").getId();
+        Long registeredId = fixtures.registeredBook("978-0-00-000601", "Other Feed Book", "Feed Author").getId();
+        bookService.borrowBook(borrowerId, borrowedId);
+
+        // Fresh changes are held back until they have settled
+        assertEquals(0, changes(since, 100).get("changes").size());
+        Thread.sleep(FEED_SETTLE_MILLIS);
+        feed = changes(since, 100);
+        JsonNode changes = feed.get("changes");
+        assertEquals(2, changes.size());
+        assertEquals(registeredId, changes.get(0).get("bookId").asLong());
+        assertEquals("REGISTERED", changes.get(0).get("type").asText());
+        assertEquals(borrowedId, changes.get(1).get("bookId").asLong());
+        assertEquals("BORROWED", changes.get(1).get("type").asText());
+        assertEquals(false, changes.get(1).get("available").asBoolean());
+        assertEquals(changes.get(1).get("seq").asLong(), feed.get("nextSince").asLong());
+        assertEquals(false, feed.get("hasMore").asBoolean());
+
+        // Paging resumes after the last change returned
+        feed = changes(since, 1);
+        assertEquals(true, feed.get("hasMore").asBoolean());
+        feed = changes(feed.get("nextSince").asLong(), 1);
+        assertEquals(borrowedId, feed.get("changes").get(0).get("bookId").asLong());
+    }
+
+    @Test
+    // Tests that borrows of different books number their changes without waiting for each other, and that a
+    // change committed ahead of a lower-numbered one is served only after the lower one has committed
+    void getChanges_ConcurrentWriters_DoNotSerialize() throws Exception {
+        Long borrowerId = fixtures.borrower("Parallel Reader", "parallel.reader.test@example.com").getId();
+        Long firstId = fixtures.registeredBook("978-0-00-000610", "First Parallel Book", "Feed Author").getId();
+        Long secondId = fixtures.registeredBook("978-0-00-000611", "Second Parallel Book", "Feed Author").getId();
+        long since = drainChanges();
+
+        CountDownLatch numbered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                bookService.borrowBook(borrowerId, firstId);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        // Runs after the feed has written this borrow's change: keep the transaction open
+                        numbered.countDown();
+                        try {
+                            release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+            }));
+            assertTrue(numbered.await(10, TimeUnit.SECONDS));
+
+            // Commits while the first borrow still holds its feed change open, instead of queueing behind it
+            bookService.borrowBook(borrowerId, secondId);
+            assertEquals(0, changes(since, 100).get("changes").size());
+
+            release.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            Thread.sleep(FEED_SETTLE_MILLIS);
+
+            JsonNode changes = changes(since, 100).get("changes");
+            assertEquals(2, changes.size());
+            assertEquals(firstId, changes.get(0).get("bookId").asLong());
+            assertEquals(secondId, changes.get(1).get("bookId").asLong());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    // Tests that committed borrows and returns are pushed in order to the streams subscribed to the book or its ISBN only
+    void streamAvailability_PushesChangesToMatchingSubscribers() throws Exception {
+        Long borrowerId = fixtures.borrower("Waiting Reader", "waiting.reader.test@example.com").getId();
+        Long watchedId = fixtures.registeredBook("978-0-00-000700", "Watched Book", "Stream Author").getId();
+        Long otherId = fixtures.registeredBook("978-0-00-000701", "Other Book", "Stream Author").getId();
+        MvcResult byBook = mockMvc.perform(get("/api/books/availability/events")
+                        .param("bookId", String.valueOf(watchedId)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult byIsbn = mockMvc.perform(get("/api/books/availability/events")
+                        .param("isbn", "978-0-00-000701"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        bookService.borrowBook(borrowerId, watchedId);
+        bookService.returnBook(borrowerId, watchedId);
+        bookService.borrowBook(borrowerId, otherId);
+
+        List<JsonNode> watched = awaitEvents(byBook, 2);
+        assertEquals(watchedId, watched.get(0).get("bookId").asLong());
+        assertEquals("978-0-00-000700", watched.get(0).get("isbn").asText());
+        assertEquals(false, watched.get(0).get("available").asBoolean());
+        assertEquals(true, watched.get(1).get("available").asBoolean());
+
+        // Changes are dispatched in commit order, so the watched book's events were already skipped
+        List<JsonNode> other = awaitEvents(byIsbn, 1);
+        assertEquals(1, other.size());
+        assertEquals(otherId, other.get(0).get("bookId").asLong());
+    }
+
+    private List<JsonNode> awaitEvents(MvcResult stream, int count) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            List<JsonNode> events = new ArrayList<>();
+            for (String line : stream.getResponse().getContentAsString().split("\n")) {
+                if (line.startsWith("data:")) {
+                    events.add(objectMapper.readTree(line.substring("data:".length())));
+                }
+            }
+            if (events.size() >= count || System.nanoTime() > deadline) {
+                return events;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    // Tests that a retried borrow with the same Idempotency-Key replays the original response and borrows once
+    void borrowBook_IdempotencyKeyReplaysResponse() throws Exception {
+        Long borrowerId = fixtures.borrower("Retrying Reader", "retrying.reader.test@example.com").getId();
+        Long bookId = fixtures.registeredBook("978-0-00-000900", "Retried Book", "Retry Author").getId();
+        String key = "borrow-" + bookId;
+        String request = "{\"borrowerId\": " + borrowerId + "}";
+        try {
+            MvcResult first = mockMvc.perform(post("/api/books/{bookId}/borrow", bookId)
+                            .header(IdempotencyFilter.KEY_HEADER, key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(request))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                    .andReturn();
+
+            // Borrowing again without the key fails, so only a replay can answer 200
+            MvcResult retry = mockMvc.perform(post("/api/books/{bookId}/borrow", bookId)
+                            .header(IdempotencyFilter.KEY_HEADER, key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(request))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                    .andReturn();
+            assertEquals(first.getResponse().getContentAsString(), retry.getResponse().getContentAsString());
+            assertEquals(1, bookBorrowRepository.findByBookId(bookId).size());
+
+            // The same key for a different request is rejected
+            mockMvc.perform(post("/api/books/{bookId}/return", bookId)
+                            .header(IdempotencyFilter.KEY_HEADER, key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(request))
+                    .andExpect(status().isUnprocessableEntity());
+            assertEquals(1, bookBorrowRepository.findByBookId(bookId).size());
+        } finally {
+            idempotencyRecordRepository.deleteById(key);
+        }
+    }
+
+    @Test
+    // Tests that a response stored by another instance is replayed from the table without processing the request
+    void borrowBook_IdempotencyKeyReplaysStoredResponse() throws Exception {
+        String key = "stored-borrow";
+        String request = "{\"borrowerId\": 1}";
+        // A key claimed with this exact request, as the filter fingerprints it
+        mockMvc.perform(post("/api/books/{bookId}/borrow", Long.MAX_VALUE)
+                        .header(IdempotencyFilter.KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isNotFound());
+        try {
+            LocalDateTime claimedAt = idempotencyRecordRepository.findById(key).orElseThrow().getCreatedAt();
+            idempotencyRecordRepository.complete(key, claimedAt, 200, MediaType.APPLICATION_JSON_VALUE,
+                    "{\"stored\": true}");
+            idempotencyStore.clearMemory();
+
+            mockMvc.perform(post("/api/books/{bookId}/borrow", Long.MAX_VALUE)
+                            .header(IdempotencyFilter.KEY_HEADER, key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(request))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                    .andExpect(jsonPath("$.stored").value(true));
+        } finally {
+            idempotencyRecordRepository.deleteById(key);
+            idempotencyStore.clearMemory();
+        }
+    }
+
+    @Test
+    // Tests that a claim left without a response blocks retries only until the processing timeout
+    void borrowBook_IdempotencyKeyLostClaimIsTakenOver() throws Exception {
+        String key = "lost-borrow";
+        String request = "{\"borrowerId\": 1}";
+        // A key claimed with this exact request, as the filter fingerprints it
+        mockMvc.perform(post("/api/books/{bookId}/borrow", Long.MAX_VALUE)
+                        .header(IdempotencyFilter.KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isNotFound());
+        try {
+            // The instance processing it crashed before storing a response
+            IdempotencyRecord claim = idempotencyRecordRepository.findById(key).orElseThrow();
+            claim.setResponseStatus(null);
+            claim.setContentType(null);
+            claim.setResponseBody(null);
+            idempotencyRecordRepository.save(claim);
+            idempotencyStore.clearMemory();
+
+            mockMvc.perform(post("/api/books/{bookId}/borrow", Long.MAX_VALUE)
+                            .header(IdempotencyFilter.KEY_HEADER, key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(request))
+                    .andExpect(status().isConflict());
+
+            claim.setCreatedAt(LocalDateTime.now().minusMinutes(1));
+            idempotencyRecordRepository.save(claim);
+            mockMvc.perform(post("/api/books/{bookId}/borrow", Long.MAX_VALUE)
+                            .header(IdempotencyFilter.KEY_HEADER, key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(request))
+                    .andExpect(status().isNotFound())
+                    .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+            assertEquals(404, idempotencyRecordRepository.findById(key).orElseThrow().getResponseStatus());
+        } finally {
+            idempotencyRecordRepository.deleteById(key);
+            idempotencyStore.clearMemory();
+        }
+    }
+
+    @Test
+    // Tests that a request whose claim was taken over can neither store its response nor free the retry's claim
+    void idempotencyStore_TakenOverClaim_IgnoresOriginalRequest() {
+        String key = "overtaken-borrow";
+        String fingerprint = "f".repeat(64);
+        try {
+            IdempotencyStore.Claim original = idempotencyStore.claim(key, fingerprint);
+            assertTrue(original.isOwned());
+            IdempotencyRecord record = idempotencyRecordRepository.findById(key).orElseThrow();
+            record.setCreatedAt(record.getCreatedAt().minusMinutes(1));
+            idempotencyRecordRepository.save(record);
+            original = new IdempotencyStore.Claim(record.getCreatedAt(), null);
+
+            IdempotencyStore.Claim retry = idempotencyStore.claim(key, fingerprint);
+            assertTrue(retry.isOwned());
+
+            // The original finishes late: its release and its response are both ignored
+            idempotencyStore.release(key, original);
+            assertTrue(idempotencyRecordRepository.existsById(key));
+            idempotencyStore.complete(key, original, fingerprint, 409, null, "late");
+            assertNull(idempotencyRecordRepository.findById(key).orElseThrow().getResponseStatus());
+
+            idempotencyStore.complete(key, retry, fingerprint, 200, null, "retried");
+            assertEquals("retried", idempotencyRecordRepository.findById(key).orElseThrow().getResponseBody());
+        } finally {
+            idempotencyRecordRepository.deleteById(key);
+            idempotencyStore.clearMemory();
+        }
+    }
+
+    // Reads the feed up to its end once everything committed so far has settled, returning where to continue
+    private long drainChanges() throws Exception {
+        Thread.sleep(FEED_SETTLE_MILLIS);
+        long since = 0;
+        JsonNode feed;
+        do {
+            feed = changes(since, 100);
+            since = feed.get("nextSince").asLong();
+        } while (feed.get("hasMore").asBoolean());
+        return since;
+    }
+
+    private JsonNode changes(long since, int size) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/books/changes")
+                        .param("since", String.valueOf(since))
+                        .param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
 }
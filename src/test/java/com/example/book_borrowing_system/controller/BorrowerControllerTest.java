@@ -1,24 +1,67 @@
 package com.example.book_borrowing_system.controller;
 
+import com.example.book_borrowing_system.cache.CatalogVersions;
+import com.example.book_borrowing_system.dto.CursorPage;
+import com.example.book_borrowing_system.model.Book;
+import com.example.book_borrowing_system.model.BookBorrow;
+import com.example.book_borrowing_system.model.Borrower;
+import com.example.book_borrowing_system.repository.BookBorrowRepository;
+import com.example.book_borrowing_system.repository.BorrowerRepository;
+import com.example.book_borrowing_system.repository.CatalogVersionRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @AutoConfigureMockMvc
+@Import(TestFixtures.class)
 class BorrowerControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private CatalogVersionRepository catalogVersionRepository;
+
+    @Autowired
+    private BookBorrowRepository bookBorrowRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.cleanUp();
+    }
+
     @Test
     @Transactional
     // Tests if can register borrower
@@ -82,6 +125,171 @@ class BorrowerControllerTest {
                 .andExpect(status().isConflict())
                 .andExpect(jsonPath("$.message").value("Email already registered"));
     }
-}
 
+    @Test
+    @Transactional
+    // Tests that borrowers are listed page by page following the next cursor
+    void getAllBorrowers_KeysetPagination() throws Exception {
+        for (String email : new String[]{"page.one.test@example.com", "page.two.test@example.com", "page.three.test@example.com"}) {
+            mockMvc.perform(post("/api/borrowers")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\": \"Page Reader\", \"email\": \"" + email + "\"}"))
+                    .andExpect(status().isOk());
+        }
 
+        MvcResult firstPage = mockMvc.perform(get("/api/borrowers").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(header().exists(CursorPage.NEXT_CURSOR_HEADER))
+                .andReturn();
+
+        mockMvc.perform(get("/api/borrowers")
+                        .param("size", "2")
+                        .param("cursor", firstPage.getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].email").value("page.three.test@example.com"))
+                .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @Transactional
+    // Tests that a CSV import registers valid rows and reports rejected rows with their line numbers
+    void importBorrowers_Csv_ReportsPerRowErrors() throws Exception {
+        mockMvc.perform(post("/api/borrowers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            {"name": "Existing Reader", "email": "existing.import.test@example.com"}
+                        """))
+                .andExpect(status().isOk());
+
+        String csv = """
+                name,email
+                Alice Import,alice.import.test@example.com
+                "Bob, Importer",bob.import.test@example.com
+                No Email,not-an-email
+                Alice Again,alice.import.test@example.com
+                Existing Reader,existing.import.test@example.com
+                broken row
+                """;
+
+        String report = mockMvc.perform(post("/api/borrowers/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = report.lines().toList();
+        assertTrue(lines.contains("{\"type\":\"ERROR\",\"line\":4,\"message\":\"Valid email is required\"}"));
+        assertTrue(lines.contains("{\"type\":\"ERROR\",\"line\":5,\"message\":\"Email appears more than once in the import\"}"));
+        assertTrue(lines.contains("{\"type\":\"ERROR\",\"line\":6,\"message\":\"Email already registered\"}"));
+        assertTrue(lines.contains("{\"type\":\"ERROR\",\"line\":7,\"message\":\"Malformed row\"}"));
+        assertEquals("{\"type\":\"SUMMARY\",\"processed\":6,\"imported\":2,\"failed\":4}", lines.get(lines.size() - 1));
+
+        mockMvc.perform(get("/api/borrowers").param("size", "500"))
+                .andExpect(jsonPath("$.data[?(@.email == 'bob.import.test@example.com')].name").value("Bob, Importer"));
+    }
+
+    @Test
+    @Transactional
+    // Tests that a borrower's active loans and paged history are read without loading entities
+    void getBorrowerLoans_ActiveAndHistory() throws Exception {
+        Borrower borrower = fixtures.borrower("Loan Reader", "loan.reader.test@example.com");
+
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 10, 0);
+        for (int i = 0; i < 3; i++) {
+            Book book = fixtures.book("978-1-00-00000" + i + "-0", "Loan Book " + i, "Loan Author", i == 0);
+
+            BookBorrow bookBorrow = new BookBorrow();
+            bookBorrow.setBook(book);
+            bookBorrow.setBorrower(borrower);
+            bookBorrow.setBorrowDate(start.plusDays(i));
+            // The first loan has been returned
+            bookBorrow.setReturnDate(i == 0 ? start.plusDays(5) : null);
+            bookBorrowRepository.save(bookBorrow);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/borrowers/" + borrower.getId() + "/loans"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].title").value("Loan Book 1"))
+                .andExpect(jsonPath("$.data[0].expectedReturnDate").value("2024-03-16T10:00:00"))
+                .andExpect(jsonPath("$.data[0].overdue").value(true));
+
+        MvcResult firstPage = mockMvc.perform(get("/api/borrowers/" + borrower.getId() + "/loans/history")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].title").value("Loan Book 2"))
+                .andExpect(jsonPath("$.data[1].title").value("Loan Book 1"))
+                .andExpect(header().exists(CursorPage.NEXT_CURSOR_HEADER))
+                .andReturn();
+
+        mockMvc.perform(get("/api/borrowers/" + borrower.getId() + "/loans/history")
+                        .param("size", "2")
+                        .param("cursor", firstPage.getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].title").value("Loan Book 0"))
+                .andExpect(jsonPath("$.data[0].returnDate").value("2024-03-06T10:00:00"))
+                .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER));
+
+        // Each request is one existence check plus one projection query
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(6, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    // Tests that loans of an unknown borrower are reported as not found
+    void getBorrowerLoans_UnknownBorrower() throws Exception {
+        mockMvc.perform(get("/api/borrowers/999999999/loans"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    // Tests that the borrower listing stays 304 until a borrower is registered.
+    // Not transactional: versions are bumped once the registration commits.
+    void getAllBorrowers_ConditionalRequest_ChangesOnRegistration() throws Exception {
+        String email = "polling.borrower.test@example.com";
+        try {
+            String etag = mockMvc.perform(get("/api/borrowers"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader("ETag");
+
+            mockMvc.perform(get("/api/borrowers").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified());
+
+            mockMvc.perform(post("/api/borrowers")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\": \"Polling Reader\", \"email\": \"" + email + "\"}"))
+                    .andExpect(status().isOk());
+
+            String changedEtag = mockMvc.perform(get("/api/borrowers").header("If-None-Match", etag))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value("SUCCESS"))
+                    .andReturn().getResponse().getHeader("ETag");
+            assertNotEquals(etag, changedEtag);
+        } finally {
+            borrowerRepository.findByEmail(email).ifPresent(borrowerRepository::delete);
+        }
+    }
+
+    @Test
+    // Tests that a change committed by another instance, which only bumps the shared version, ends the 304s here
+    void getAllBorrowers_ConditionalRequest_SeesOtherInstancesChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/borrowers"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/borrowers").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        catalogVersionRepository.bump(CatalogVersions.Catalog.BORROWERS.name(), System.currentTimeMillis());
+
+        mockMvc.perform(get("/api/borrowers").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,331 @@
+package com.example.book_borrowing_system.controller;
+
+import com.example.book_borrowing_system.exception.DuplicateResourceException;
+import com.example.book_borrowing_system.model.Book;
+import com.example.book_borrowing_system.model.BookHold;
+import com.example.book_borrowing_system.repository.BookHoldRepository;
+import com.example.book_borrowing_system.repository.BookRepository;
+import com.example.book_borrowing_system.service.BookService;
+import com.example.book_borrowing_system.service.HoldService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class HoldControllerTest {
+
+    private static final String ISBN = "978-0-00-000800";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookHoldRepository bookHoldRepository;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.cleanUp();
+    }
+
+    private Long borrower(String name) {
+        return fixtures.borrower(name).getId();
+    }
+
+    private Long book() {
+        return fixtures.book(ISBN, "Held Book", "Hold Author").getId();
+    }
+
+    private ResultActions borrow(Long bookId, Long borrowerId) throws Exception {
+        return mockMvc.perform(post("/api/books/" + bookId + "/borrow")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"borrowerId\": " + borrowerId + "}"));
+    }
+
+    private ResultActions returnBook(Long bookId, Long borrowerId) throws Exception {
+        return mockMvc.perform(post("/api/books/" + bookId + "/return")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"borrowerId\": " + borrowerId + "}"));
+    }
+
+    private Long placeHold(Long borrowerId) throws Exception {
+        String response = mockMvc.perform(post("/api/holds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"borrowerId\": " + borrowerId + ", \"isbn\": \"" + ISBN + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("WAITING"))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    // Requests share the test transaction, so conditional updates must not be hidden by cached holds
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @Transactional
+    // Tests that a hold is refused while a copy can simply be borrowed
+    void placeHold_CopyAvailable_BadRequest() throws Exception {
+        Long borrowerId = borrower("Early Reader");
+        book();
+
+        mockMvc.perform(post("/api/holds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"borrowerId\": " + borrowerId + ", \"isbn\": \"" + ISBN + "\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    // Tests that concurrent requests for the same hold place it once, without relying on a partial unique index
+    void placeHold_Concurrent_PlacesOneHold() throws Exception {
+        int requests = 8;
+        String isbn = "978-0-00-000801";
+        Long borrowerId = borrower("Impatient Holder");
+        fixtures.book(isbn, "Popular Book", "Hold Author", false);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return holdService.placeHold(borrowerId, isbn);
+                }));
+            }
+            start.countDown();
+
+            int placed = 0;
+            int duplicates = 0;
+            for (Future<?> result : results) {
+                try {
+                    result.get(10, TimeUnit.SECONDS);
+                    placed++;
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof DuplicateResourceException, e.getCause().toString());
+                    duplicates++;
+                }
+            }
+            assertEquals(1, placed);
+            assertEquals(requests - 1, duplicates);
+            assertEquals(1, bookHoldRepository.findAll().stream()
+                    .filter(hold -> hold.getIsbn().equals(isbn)).count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Places a hold on another thread and keeps its transaction open right before the commit until released
+    private Future<Long> placeHoldHeldAtCommit(ExecutorService executor, Long borrowerId, String isbn,
+                                               CountDownLatch placed, CountDownLatch release) {
+        return executor.submit(() -> transactionTemplate.execute(status -> {
+            Long holdId = holdService.placeHold(borrowerId, isbn).getId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    placed.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            return holdId;
+        }));
+    }
+
+    @Test
+    // Tests that a return committing while a hold is being placed hands the copy to that hold.
+    // Not transactional: the hold and the return run in concurrent transactions.
+    void placeHold_ConcurrentReturn_HandsCopyToNewHold() throws Exception {
+        String isbn = "978-0-00-000802";
+        Long reader = borrower("Returning Racer");
+        Long holder = borrower("Racing Holder");
+        Long bookId = fixtures.book(isbn, "Raced Book", "Hold Author").getId();
+        bookService.borrowBook(reader, bookId);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch placed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<Long> hold = placeHoldHeldAtCommit(executor, holder, isbn, placed, release);
+            assertTrue(placed.await(10, TimeUnit.SECONDS));
+
+            // The return waits for the title until the hold commits, then finds it in the queue
+            Future<?> returned = executor.submit(() -> bookService.returnBook(reader, bookId));
+            Thread.sleep(300);
+            assertFalse(returned.isDone());
+            release.countDown();
+            returned.get(10, TimeUnit.SECONDS);
+
+            BookHold placedHold = bookHoldRepository.findById(hold.get(10, TimeUnit.SECONDS)).orElseThrow();
+            assertEquals(BookHold.Status.READY, placedHold.getStatus());
+            assertEquals(bookId, placedHold.getBookId());
+            assertFalse(bookRepository.findById(bookId).orElseThrow().isAvailable());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    // Tests that a copy registered while a hold is being placed goes to that hold instead of the shelf.
+    // Not transactional: the hold and the registration run in concurrent transactions.
+    void placeHold_ConcurrentRegistration_HandsNewCopyToHold() throws Exception {
+        String isbn = "978-0-00-000803";
+        Long holder = borrower("Registration Racer");
+        fixtures.book(isbn, "Scarce Book", "Hold Author", false);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch placed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<Long> hold = placeHoldHeldAtCommit(executor, holder, isbn, placed, release);
+            assertTrue(placed.await(10, TimeUnit.SECONDS));
+
+            Future<Book> registered = executor.submit(
+                    () -> bookService.registerBook(isbn, "Scarce Book", "Hold Author"));
+            Thread.sleep(300);
+            assertFalse(registered.isDone());
+            release.countDown();
+            Long copyId = registered.get(10, TimeUnit.SECONDS).getId();
+
+            BookHold placedHold = bookHoldRepository.findById(hold.get(10, TimeUnit.SECONDS)).orElseThrow();
+            assertEquals(BookHold.Status.READY, placedHold.getStatus());
+            assertEquals(copyId, placedHold.getBookId());
+            assertFalse(bookRepository.findById(copyId).orElseThrow().isAvailable());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Transactional
+    // Tests that a return hands the copy to the first holder only, who picks it up by borrowing it
+    void returnBook_HandsCopyToFirstHolder() throws Exception {
+        Long reader = borrower("Current Reader");
+        Long first = borrower("First Holder");
+        Long second = borrower("Second Holder");
+        Long bookId = book();
+        borrow(bookId, reader).andExpect(status().isOk());
+
+        Long firstHold = placeHold(first);
+        Long secondHold = placeHold(second);
+        mockMvc.perform(get("/api/holds/" + secondHold))
+                .andExpect(jsonPath("$.position").value(2));
+        mockMvc.perform(post("/api/holds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"borrowerId\": " + first + ", \"isbn\": \"" + ISBN + "\"}"))
+                .andExpect(status().isConflict());
+
+        returnBook(bookId, reader).andExpect(status().isOk());
+        flushAndClear();
+
+        mockMvc.perform(get("/api/holds/" + firstHold))
+                .andExpect(jsonPath("$.status").value("READY"))
+                .andExpect(jsonPath("$.bookId").value(bookId))
+                .andExpect(jsonPath("$.expiresAt").isNotEmpty());
+        mockMvc.perform(get("/api/holds/" + secondHold))
+                .andExpect(jsonPath("$.position").value(1));
+        mockMvc.perform(get("/api/books/isbn/" + ISBN + "/availability"))
+                .andExpect(jsonPath("$.availableCopies").value(0));
+
+        // The copy is set aside: the second holder cannot take it, the first one picks it up
+        borrow(bookId, second).andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/books/isbn/" + ISBN + "/borrow")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"borrowerId\": " + first + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookId").value(bookId));
+        flushAndClear();
+        assertEquals(BookHold.Status.FULFILLED, bookHoldRepository.findById(firstHold).orElseThrow().getStatus());
+    }
+
+    @Test
+    @Transactional
+    // Tests that an unclaimed copy passes to the next holder when the pickup window expires, then becomes available
+    void expireHolds_PassesCopyOn() throws Exception {
+        Long reader = borrower("Returning Reader");
+        Long first = borrower("Absent Holder");
+        Long second = borrower("Patient Holder");
+        Long bookId = book();
+        borrow(bookId, reader).andExpect(status().isOk());
+        Long firstHold = placeHold(first);
+        Long secondHold = placeHold(second);
+        returnBook(bookId, reader).andExpect(status().isOk());
+        flushAndClear();
+
+        BookHold ready = bookHoldRepository.findById(firstHold).orElseThrow();
+        ready.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        flushAndClear();
+        holdService.expireHolds();
+        flushAndClear();
+
+        assertEquals(BookHold.Status.EXPIRED, bookHoldRepository.findById(firstHold).orElseThrow().getStatus());
+        BookHold next = bookHoldRepository.findById(secondHold).orElseThrow();
+        assertEquals(BookHold.Status.READY, next.getStatus());
+        assertEquals(bookId, next.getBookId());
+
+        // Cancelling the ready hold with nobody else waiting makes the copy available again
+        mockMvc.perform(post("/api/holds/" + secondHold + "/cancel")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"borrowerId\": " + second + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+        flushAndClear();
+        assertTrue(bookRepository.findById(bookId).orElseThrow().isAvailable());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.book_borrowing_system.controller;
+
+import com.example.book_borrowing_system.dto.CursorPage;
+import com.example.book_borrowing_system.model.Book;
+import com.example.book_borrowing_system.model.BookBorrow;
+import com.example.book_borrowing_system.model.Borrower;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class LoanControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.cleanUp();
+    }
+
+    private BookBorrow borrow(Borrower borrower, LocalDateTime borrowDate) {
+        Book book = fixtures.book("978-0-00-000000-1", "Overdue Book", "Overdue Author");
+        return fixtures.borrow(book, borrower, borrowDate);
+    }
+
+    @Test
+    @Transactional
+    // Tests that overdue loans are listed oldest first, page by page, and loans within the loan period are left out
+    void getOverdueLoans_OldestFirstWithKeysetPagination() throws Exception {
+        Borrower alice = fixtures.borrower("Alice Overdue", "alice.overdue@example.com");
+        Borrower bob = fixtures.borrower("Bob Overdue", "bob.overdue@example.com");
+        BookBorrow oldest = borrow(alice, LocalDateTime.of(2000, 1, 1, 9, 0));
+        BookBorrow middle = borrow(bob, LocalDateTime.of(2000, 1, 2, 9, 0));
+        BookBorrow newest = borrow(alice, LocalDateTime.of(2000, 1, 3, 9, 0));
+        borrow(bob, LocalDateTime.now());
+
+        MvcResult first = mockMvc.perform(get("/api/loans/overdue").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].id").value(oldest.getId()))
+                .andExpect(jsonPath("$.data[0].borrowerEmail").value("alice.overdue@example.com"))
+                .andExpect(jsonPath("$.data[0].expectedReturnDate").value("2000-01-15T09:00:00"))
+                .andExpect(jsonPath("$.data[1].id").value(middle.getId()))
+                .andReturn();
+        String cursor = first.getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+        assertNotNull(cursor);
+
+        mockMvc.perform(get("/api/loans/overdue").param("size", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].id").value(newest.getId()))
+                .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @Transactional
+    // Tests that overdue loans are counted per borrower
+    void getOverdueBorrowers_GroupsByBorrower() throws Exception {
+        Borrower alice = fixtures.borrower("Alice Overdue", "alice.overdue@example.com");
+        Borrower bob = fixtures.borrower("Bob Overdue", "bob.overdue@example.com");
+        borrow(alice, LocalDateTime.of(2000, 1, 1, 9, 0));
+        borrow(alice, LocalDateTime.of(2000, 1, 3, 9, 0));
+        borrow(bob, LocalDateTime.now());
+
+        mockMvc.perform(get("/api/loans/overdue/borrowers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].borrowerId").value(alice.getId()))
+                .andExpect(jsonPath("$.data[0].overdueCount").value(2))
+                .andExpect(jsonPath("$.data[0].oldestBorrowDate").value("2000-01-01T09:00:00"));
+    }
+
+    @Test
+    // Tests that a malformed cursor is rejected
+    void getOverdueLoans_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/loans/overdue").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+}
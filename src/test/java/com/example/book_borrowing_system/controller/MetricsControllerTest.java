@@ -0,0 +1,103 @@
+package com.example.book_borrowing_system.controller;
+
+import com.example.book_borrowing_system.model.Book;
+import com.example.book_borrowing_system.repository.BookRepository;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "library.metrics.persistence.slow-statement-threshold=0ms",
+        "library.metrics.persistence.n-plus-one-threshold=2"
+})
+@AutoConfigureMockMvc
+class MetricsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    @Transactional
+    // Tests that requests are counted per route template and slow statements are reported without bound values
+    void getPersistenceStats_CountsRequestsAndRedactsSlowStatements() throws Exception {
+        Book book = new Book();
+        book.setIsbn("978-0-00-424242-4");
+        book.setTitle("Metered Book");
+        book.setAuthor("Metered Author");
+        book.setAvailable(true);
+        bookRepository.saveAndFlush(book);
+
+        mockMvc.perform(get("/api/books/isbn/978-0-00-424242-4/availability"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/metrics/persistence"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statements").value(greaterThan(0)))
+                .andExpect(jsonPath("$.connections.acquisitions").value(greaterThan(0)))
+                .andExpect(jsonPath("$.endpoints[?(@.endpoint == 'GET /api/books/isbn/{isbn}/availability')].avgQueries")
+                        .value(2.0))
+                .andExpect(jsonPath("$.slowStatements[*].sql").value(hasItem(containsString("isbn=?"))))
+                .andExpect(jsonPath("$.slowStatements[*].sql").value(not(hasItem(containsString("978-0-00-424242-4")))));
+    }
+
+    @Test
+    // Tests that failed requests are timed and counted per endpoint and exception type, and exposed for scraping
+    void getLatencyStats_CountsErrorsByExceptionType() throws Exception {
+        mockMvc.perform(post("/api/books/999999999/borrow")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"borrowerId\": 1}"))
+                .andExpect(status().isNotFound());
+
+        String endpoint = "$.endpoints[?(@.endpoint == 'POST /api/books/{bookId}/borrow')]";
+        mockMvc.perform(get("/api/metrics/latency"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(endpoint + ".errorRate").value(1.0))
+                .andExpect(jsonPath(endpoint + ".exceptions.ResourceNotFoundException").value(1))
+                .andExpect(jsonPath(endpoint + ".latency.p99").value(hasItem(greaterThan(0.0))))
+                .andExpect(jsonPath("$.services[?(@.name == 'BookService.borrowBook')].calls").value(1));
+
+        mockMvc.perform(get("/api/metrics/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "http_server_exceptions_total{method=\"POST\",uri=\"/api/books/{bookId}/borrow\","
+                                + "exception=\"ResourceNotFoundException\"} 1")))
+                .andExpect(content().string(containsString(
+                        "service_method_seconds_count{method=\"BookService.borrowBook\"} 1")));
+    }
+
+    @Test
+    // Tests that write requests are admitted per route template while reads bypass admission control
+    void getAdmissionStats_TracksWriteRoutesOnly() throws Exception {
+        mockMvc.perform(post("/api/books/999999999/return")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"borrowerId\": 1}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/books/isbn/978-0-00-424243-1/availability"));
+
+        String route = "$.routes[?(@.route == 'POST /api/books/{bookId}/return')]";
+        mockMvc.perform(get("/api/metrics/admission"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalInFlight").value(0))
+                .andExpect(jsonPath(route + ".admitted").value(hasItem(greaterThan(0))))
+                .andExpect(jsonPath(route + ".inFlight").value(hasItem(0)))
+                .andExpect(jsonPath("$.routes[*].route").value(not(hasItem(startsWith("GET")))));
+    }
+}
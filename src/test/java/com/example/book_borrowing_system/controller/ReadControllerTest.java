@@ -0,0 +1,136 @@
+package com.example.book_borrowing_system.controller;
+
+import com.example.book_borrowing_system.model.Book;
+import com.example.book_borrowing_system.model.Borrower;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Not transactional: responses are streamed from an async thread and must see committed data.
+// A chunk size of 2 makes every listing below span several chunks.
+@SpringBootTest(properties = "library.read.chunk-size=2")
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class ReadControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.cleanUp();
+    }
+
+    private MockHttpServletResponse stream(String path, String... params) throws Exception {
+        var builder = get(path);
+        for (int i = 0; i < params.length; i += 2) {
+            builder.param(params[i], params[i + 1]);
+        }
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse();
+    }
+
+    private List<String> streamLines(String path, String... params) throws Exception {
+        return stream(path, params).getContentAsString().lines().toList();
+    }
+
+    @Test
+    // Tests that the book stream spans chunks, honours afterId and limit, and carries the borrow status
+    void streamBooks_SpansChunksWithBorrowStatus() throws Exception {
+        Borrower reader = fixtures.borrower("Kiosk Reader", "kiosk.reader@example.com");
+        Book first = fixtures.book("978-0-00-000201", "Read Book One", "Read Author");
+        fixtures.book("978-0-00-000202", "Read Book Two", "Read Author");
+        Book third = fixtures.book("978-0-00-000203", "Read Book Three", "Read Author");
+        fixtures.book("978-0-00-000204", "Read Book Four", "Read Author");
+        fixtures.borrow(third, reader, LocalDateTime.now().minusDays(30));
+
+        List<String> lines = streamLines("/api/read/books",
+                "afterId", Long.toString(first.getId() - 1), "limit", "3");
+
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("\"title\":\"Read Book One\""));
+        assertTrue(lines.get(0).contains("\"borrowerId\":null"));
+        assertTrue(lines.get(2).contains("\"title\":\"Read Book Three\""));
+        assertTrue(lines.get(2).contains("\"available\":false"));
+        assertTrue(lines.get(2).contains("\"borrowerId\":" + reader.getId()));
+        assertTrue(lines.get(2).contains("\"overdue\":true"));
+    }
+
+    @Test
+    // Tests that a stream stopped at its row limit is resumed from the ID of its last row
+    void streamBooks_LimitedStream_ResumesAfterLastId() throws Exception {
+        Book first = fixtures.book("978-0-00-000211", "Resumed Book One", "Read Author");
+        fixtures.book("978-0-00-000212", "Resumed Book Two", "Read Author");
+        Book third = fixtures.book("978-0-00-000213", "Resumed Book Three", "Read Author");
+
+        MockHttpServletResponse response = stream("/api/read/books",
+                "afterId", Long.toString(first.getId() - 1), "limit", "2");
+        assertEquals("2", response.getHeader(ReadController.ROW_LIMIT_HEADER));
+        List<String> lines = response.getContentAsString().lines().toList();
+        assertEquals(2, lines.size());
+
+        long lastId = objectMapper.readTree(lines.get(1)).get("id").asLong();
+        List<String> rest = streamLines("/api/read/books", "afterId", Long.toString(lastId), "limit", "2");
+        assertEquals(third.getId(), objectMapper.readTree(rest.get(0)).get("id").asLong());
+    }
+
+    @Test
+    // Tests that every copy of a title is returned and an unknown ISBN is reported as not found
+    void getCopies_ReturnsCopiesOrNotFound() throws Exception {
+        fixtures.book("978-0-00-000301", "Copied Book", "Read Author");
+        fixtures.book("978-0-00-000301", "Copied Book", "Read Author");
+
+        List<String> lines = streamLines("/api/read/books/isbn/978-0-00-000301");
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).contains("\"available\":true"));
+
+        mockMvc.perform(get("/api/read/books/isbn/978-0-00-999999"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    // Tests that the borrower stream reports each borrower's number of active loans
+    void streamBorrowers_ReportsActiveLoans() throws Exception {
+        Borrower busy = fixtures.borrower("Busy Reader", "busy.reader@example.com");
+        fixtures.borrower("Idle Reader", "idle.reader@example.com");
+        fixtures.borrower("Late Reader", "late.reader@example.com");
+        fixtures.borrow(fixtures.book("978-0-00-000401", "Loaned One", "Read Author"), busy, LocalDateTime.now());
+        fixtures.borrow(fixtures.book("978-0-00-000402", "Loaned Two", "Read Author"), busy, LocalDateTime.now());
+
+        List<String> lines = streamLines("/api/read/borrowers", "afterId", Long.toString(busy.getId() - 1));
+
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("\"name\":\"Busy Reader\""));
+        assertTrue(lines.get(0).contains("\"activeLoans\":2"));
+        assertTrue(lines.get(1).contains("\"activeLoans\":0"));
+    }
+}
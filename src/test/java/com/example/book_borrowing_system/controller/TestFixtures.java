@@ -0,0 +1,125 @@
+package com.example.book_borrowing_system.controller;
+
+import com.example.book_borrowing_system.model.Book;
+import com.example.book_borrowing_system.model.BookBorrow;
+import com.example.book_borrowing_system.model.Borrower;
+import com.example.book_borrowing_system.repository.BookBorrowRepository;
+import com.example.book_borrowing_system.repository.BookHoldRepository;
+import com.example.book_borrowing_system.repository.BookRepository;
+import com.example.book_borrowing_system.repository.BorrowerRepository;
+import com.example.book_borrowing_system.repository.CatalogChangeRepository;
+import com.example.book_borrowing_system.service.BookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates the borrowers, books and borrows that controller tests need, and deletes them again in
+ * {@link #cleanUp()}. Tests that commit their rows call it after each test, so suites sharing the database
+ * only ever see their own rows; inside a test transaction the rows are rolled back anyway.
+ */
+@TestComponent
+public class TestFixtures {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private BookBorrowRepository bookBorrowRepository;
+
+    @Autowired
+    private BookHoldRepository bookHoldRepository;
+
+    @Autowired
+    private CatalogChangeRepository catalogChangeRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    // Titles are deleted with every copy, so copies registered by the code under test go too
+    private final Set<String> isbns = new LinkedHashSet<>();
+    private final List<Long> borrowerIds = new ArrayList<>();
+
+    public Borrower borrower(String name, String email) {
+        Borrower borrower = new Borrower();
+        borrower.setName(name);
+        borrower.setEmail(email);
+        borrower = borrowerRepository.save(borrower);
+        borrowerIds.add(borrower.getId());
+        return borrower;
+    }
+
+    // A borrower whose email is derived from the name
+    public Borrower borrower(String name) {
+        return borrower(name, name.toLowerCase().replace(' ', '.') + ".test@example.com");
+    }
+
+    public Book book(String isbn, String title, String author) {
+        return book(isbn, title, author, true);
+    }
+
+    public Book book(String isbn, String title, String author, boolean available) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setAvailable(available);
+        isbns.add(isbn);
+        return bookRepository.save(book);
+    }
+
+    // Registers a copy through the service, so it is indexed and recorded in the change feed
+    public Book registeredBook(String isbn, String title, String author) {
+        isbns.add(isbn);
+        return bookService.registerBook(isbn, title, author);
+    }
+
+    // Records an active borrow directly, without the checks of a real borrow
+    public BookBorrow borrow(Book book, Borrower borrower, LocalDateTime borrowDate) {
+        book.setAvailable(false);
+        bookRepository.save(book);
+        BookBorrow bookBorrow = new BookBorrow();
+        bookBorrow.setBook(book);
+        bookBorrow.setBorrower(borrower);
+        bookBorrow.setBorrowDate(borrowDate);
+        return bookBorrowRepository.save(bookBorrow);
+    }
+
+    /**
+     * Marks a title created by the code under test for deletion.
+     * @param isbn the ISBN of the title
+     */
+    public void trackTitle(String isbn) {
+        isbns.add(isbn);
+    }
+
+    /**
+     * Deletes the holds, loans, feed entries and copies of every title, then every borrower, created since
+     * the last clean-up.
+     */
+    public void cleanUp() {
+        if (!isbns.isEmpty()) {
+            bookHoldRepository.findAll().stream()
+                    .filter(hold -> isbns.contains(hold.getIsbn()))
+                    .forEach(bookHoldRepository::delete);
+        }
+        for (String isbn : isbns) {
+            for (Book copy : bookRepository.findByIsbn(isbn)) {
+                bookBorrowRepository.deleteAll(bookBorrowRepository.findByBookId(copy.getId()));
+                catalogChangeRepository.findById(copy.getId()).ifPresent(catalogChangeRepository::delete);
+                bookRepository.delete(copy);
+            }
+        }
+        borrowerRepository.deleteAllById(borrowerIds);
+        isbns.clear();
+        borrowerIds.clear();
+    }
+}
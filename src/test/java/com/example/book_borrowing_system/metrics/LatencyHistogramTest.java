@@ -0,0 +1,51 @@
+package com.example.book_borrowing_system.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    // Tests if quantiles stay within the histogram's relative error over a wide range of values
+    @Test
+    void quantileMicros_UniformValues_WithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMaxMicros());
+        assertEquals(50_000, histogram.quantileMicros(0.5), 50_000 / 64.0);
+        assertEquals(99_000, histogram.quantileMicros(0.99), 99_000 / 64.0);
+        assertEquals(99_900, histogram.quantileMicros(0.999), 99_900 / 64.0);
+    }
+
+    // Tests if small values are recorded exactly and a single outlier only moves the top quantiles
+    @Test
+    void quantileMicros_Outlier_OnlyAffectsTail() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 999; i++) {
+            histogram.record(100_000);
+        }
+        histogram.record(5_000_000_000L);
+
+        assertEquals(100, histogram.quantileMicros(0.5));
+        assertEquals(100, histogram.quantileMicros(0.99));
+        assertEquals(5_000_000, histogram.quantileMicros(1.0));
+    }
+
+    // Tests if every bucket maps back onto itself
+    @Test
+    void indexOf_HighestEquivalentValue_RoundTrips() {
+        for (int index = 0; index < LatencyHistogram.indexOf((1L << 36) - 1); index++) {
+            assertEquals(index, LatencyHistogram.indexOf(LatencyHistogram.highestEquivalentValue(index)));
+        }
+    }
+
+    // Tests if an empty histogram reports zero
+    @Test
+    void quantileMicros_Empty_IsZero() {
+        assertEquals(0, new LatencyHistogram().quantileMicros(0.99));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.book_borrowing_system.metrics;
+
+import com.example.book_borrowing_system.config.PersistenceMetricsProperties;
+import com.example.book_borrowing_system.dto.PersistenceStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistenceMetricsTest {
+
+    private static final String SELECT_BORROW = "select bb.id from book_borrow bb where bb.book_id=? and bb.return_date is null";
+
+    private PersistenceMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        PersistenceMetricsProperties properties = new PersistenceMetricsProperties();
+        properties.setSlowStatementThreshold(Duration.ofMillis(100));
+        properties.setNPlusOneThreshold(3);
+        metrics = new PersistenceMetrics(properties);
+    }
+
+    // Tests if statements and entity loads are counted per endpoint
+    @Test
+    void endRequest_AggregatesPerEndpoint() {
+        for (int statements = 1; statements <= 2; statements++) {
+            metrics.beginRequest("GET /api/books/1");
+            for (int i = 0; i < statements; i++) {
+                metrics.recordStatement("select 1", false, 1_000);
+                metrics.recordEntityLoad();
+            }
+            metrics.endRequest("GET /api/books/{id}");
+        }
+
+        PersistenceStats.EndpointStats endpoint = metrics.snapshot().getEndpoints().get(0);
+        assertEquals("GET /api/books/{id}", endpoint.getEndpoint());
+        assertEquals(2, endpoint.getRequests());
+        assertEquals(1.5, endpoint.getAvgQueries());
+        assertEquals(2, endpoint.getMaxQueries());
+        assertEquals(2, endpoint.getMaxEntityLoads());
+        assertEquals(0, endpoint.getSuspectedNPlusOneRequests());
+    }
+
+    // Tests if a statement repeated within one request is flagged as a suspected N+1
+    @Test
+    void endRequest_RepeatedStatement_FlagsNPlusOne() {
+        metrics.beginRequest("GET /api/books");
+        for (long bookId = 1; bookId <= 3; bookId++) {
+            metrics.recordStatement(SELECT_BORROW, false, 1_000);
+        }
+        metrics.endRequest("GET /api/books");
+
+        PersistenceStats stats = metrics.snapshot();
+        assertEquals(1, stats.getSuspectedNPlusOne().size());
+        assertEquals(SELECT_BORROW, stats.getSuspectedNPlusOne().get(0).getSql());
+        assertEquals(3, stats.getSuspectedNPlusOne().get(0).getExecutions());
+        assertEquals(1, stats.getEndpoints().get(0).getSuspectedNPlusOneRequests());
+    }
+
+    // Tests if JDBC batches of the same insert count as statements but are not flagged as a suspected N+1
+    @Test
+    void endRequest_RepeatedBatch_NotFlagged() {
+        metrics.beginRequest("POST /api/books/bulk");
+        for (int batch = 0; batch < 5; batch++) {
+            metrics.recordStatement("insert into book (author,isbn,title,id) values (?,?,?,?)", true, 1_000);
+        }
+        metrics.endRequest("POST /api/books/bulk");
+
+        PersistenceStats stats = metrics.snapshot();
+        assertEquals(5, stats.getStatements());
+        assertTrue(stats.getSuspectedNPlusOne().isEmpty());
+        assertEquals(0, stats.getEndpoints().get(0).getSuspectedNPlusOneRequests());
+    }
+
+    // Tests if slow statements are recorded with their placeholders and no bound values
+    @Test
+    void recordStatement_Slow_RecordsSqlWithPlaceholders() {
+        metrics.beginRequest("GET /api/books/search");
+        metrics.recordStatement("select * from book where author=? and id>?", false, 150_000_000);
+        metrics.recordStatement("select 1", false, 1_000);
+        metrics.endRequest("GET /api/books/search");
+
+        PersistenceStats stats = metrics.snapshot();
+        assertEquals(2, stats.getStatements());
+        assertEquals(1, stats.getSlowStatementCount());
+        PersistenceStats.SlowStatement slow = stats.getSlowStatements().get(0);
+        assertEquals("select * from book where author=? and id>?", slow.getSql());
+        assertEquals("GET /api/books/search", slow.getEndpoint());
+        assertEquals(150.0, slow.getDurationMillis());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.book_borrowing_system.search;
+
+import com.example.book_borrowing_system.dto.BookDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex();
+        index.addAll(List.of(
+                new BookDto.CatalogEntry("111", "The Hobbit", "J. R. R. Tolkien"),
+                new BookDto.CatalogEntry("222", "The Lord of the Rings", "J. R. R. Tolkien"),
+                new BookDto.CatalogEntry("333", "Tolkien: A Biography", "Humphrey Carpenter"),
+                new BookDto.CatalogEntry("444", "Cien años de soledad", "Gabriel García Márquez")));
+    }
+
+    private static List<String> isbns(List<BookDto.SearchResult> results) {
+        return results.stream().map(BookDto.SearchResult::getIsbn).toList();
+    }
+
+    // Tests if the last token of the query matches as a prefix
+    @Test
+    void search_LastToken_MatchesAsPrefix() {
+        assertEquals(List.of("111"), isbns(index.search("hob", 10)));
+    }
+
+    // Tests if every token of the query has to match
+    @Test
+    void search_MultipleTokens_RequiresAllToMatch() {
+        assertEquals(List.of("222"), isbns(index.search("tolkien lord", 10)));
+        assertTrue(index.search("hobbit carpenter", 10).isEmpty());
+    }
+
+    // Tests if a match in the title ranks above a match in the author only
+    @Test
+    void search_TitleMatch_RanksAboveAuthorMatch() {
+        List<String> results = isbns(index.search("tolkien", 10));
+
+        assertEquals(3, results.size());
+        assertEquals("333", results.get(0));
+    }
+
+    // Tests if accents and case are ignored
+    @Test
+    void search_AccentsAndCase_AreNormalized() {
+        assertEquals(List.of("444"), isbns(index.search("GARCIA anos", 10)));
+    }
+
+    // Tests if an ISBN is indexed only once and the limit is respected
+    @Test
+    void search_DuplicateIsbnAndLimit_AreHandled() {
+        index.add(new BookDto.CatalogEntry("111", "The Hobbit", "J. R. R. Tolkien"));
+
+        assertEquals(4, index.size());
+        assertEquals(1, index.search("the", 1).size());
+    }
+
+    // Tests if a short prefix keeps the terms found in the most titles rather than the first ones alphabetically
+    @Test
+    void search_ShortPrefix_KeepsMostFrequentExpansions() {
+        List<BookDto.CatalogEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            entries.add(new BookDto.CatalogEntry("rare-" + i, String.format("Babel%03d", i), "Anonymous"));
+        }
+        for (int i = 0; i < 3; i++) {
+            entries.add(new BookDto.CatalogEntry("popular-" + i, "Byzantium Volume " + i, "Anonymous"));
+        }
+        index.addAll(entries);
+
+        List<String> results = isbns(index.search("b", 200));
+
+        assertTrue(results.containsAll(List.of("popular-0", "popular-1", "popular-2")));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.book_borrowing_system.service;
+
+import com.example.book_borrowing_system.cache.BookIsbnCache;
+import com.example.book_borrowing_system.cache.CatalogVersions;
+import com.example.book_borrowing_system.config.BulkProperties;
+import com.example.book_borrowing_system.dto.BookDto;
+import com.example.book_borrowing_system.feed.CatalogChangeFeed;
+import com.example.book_borrowing_system.repository.BookRepository;
+import com.example.book_borrowing_system.search.BookSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookImportServiceTest {
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BulkProperties bulkProperties;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private BookIsbnCache bookIsbnCache;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    @Mock
+    private CatalogChangeFeed catalogChangeFeed;
+
+    @Mock
+    private HoldService holdService;
+
+    @InjectMocks
+    private BookImportService bookImportService;
+
+    private static BookDto.RegisterRequest book(String isbn, String title) {
+        BookDto.RegisterRequest request = new BookDto.RegisterRequest();
+        request.setIsbn(isbn);
+        request.setTitle(title);
+        request.setAuthor("Chunk Author");
+        return request;
+    }
+
+    // Tests that a chunk failing to commit is reported per item while the chunks around it are registered
+    @Test
+    void registerBooks_ChunkFails_ReportsItemsAndKeepsOtherChunks() {
+        when(bulkProperties.getMaxItems()).thenReturn(100);
+        when(bulkProperties.getChunkSize()).thenReturn(2);
+        AtomicInteger chunks = new AtomicInteger();
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            if (chunks.incrementAndGet() == 2) {
+                throw new CannotCreateTransactionException("Connection refused");
+            }
+            return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+        });
+
+        BookDto.BulkRegisterResponse response = bookImportService.registerBooks(List.of(
+                book("978-0-00-000001", "First"),
+                book("978-0-00-000002", "Second"),
+                book("978-0-00-000003", "Rolled Back"),
+                book("978-0-00-000004", "Rolled Back Too"),
+                // Same ISBN as a rolled-back item but another title: not a conflict, nothing was stored
+                book("978-0-00-000003", "Resent")));
+
+        assertEquals(3, response.getCreated());
+        assertEquals(2, response.getFailed());
+        List<BookDto.BulkItemResult> results = response.getResults();
+        assertEquals(BookDto.BulkItemStatus.CREATED, results.get(0).getStatus());
+        assertEquals(BookDto.BulkItemStatus.CREATED, results.get(1).getStatus());
+        assertEquals(BookDto.BulkItemStatus.FAILED, results.get(2).getStatus());
+        assertEquals(3, results.get(3).getIndex());
+        assertEquals(BookDto.BulkItemStatus.FAILED, results.get(3).getStatus());
+        assertNotNull(results.get(3).getMessage());
+        assertEquals(BookDto.BulkItemStatus.CREATED, results.get(4).getStatus());
+    }
+}
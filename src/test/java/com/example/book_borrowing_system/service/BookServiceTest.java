@@ -1,14 +1,24 @@
 package com.example.book_borrowing_system.service;
 
+import com.example.book_borrowing_system.cache.BookIsbnCache;
+import com.example.book_borrowing_system.cache.CatalogVersions;
+import com.example.book_borrowing_system.dto.BookDto;
+import com.example.book_borrowing_system.dto.CursorPage;
 import com.example.book_borrowing_system.exception.ConflictException;
+import com.example.book_borrowing_system.exception.IllegalOperationException;
+import com.example.book_borrowing_system.exception.ResourceNotFoundException;
+import com.example.book_borrowing_system.feed.AvailabilityStream;
+import com.example.book_borrowing_system.feed.CatalogChangeFeed;
 import com.example.book_borrowing_system.model.*;
 import com.example.book_borrowing_system.repository.*;
+import com.example.book_borrowing_system.search.BookSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,6 +26,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +37,18 @@ public class BookServiceTest {
     private BookBorrowRepository bookBorrowRepository;
     @Mock
     private BorrowerRepository borrowerRepository;
+    @Mock
+    private BookIsbnCache bookIsbnCache;
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+    @Mock
+    private CatalogVersions catalogVersions;
+    @Mock
+    private CatalogChangeFeed catalogChangeFeed;
+    @Mock
+    private AvailabilityStream availabilityStream;
+    @Mock
+    private HoldService holdService;
 
     @InjectMocks
     private BookService bookService;
@@ -69,6 +92,22 @@ public class BookServiceTest {
         verify(bookRepository).save(any(Book.class));
     }
 
+    @Test
+    // Tests that a new copy of a title with waiting holds is set aside for the queue instead of becoming available
+    void registerBook_TitleHasWaitingHolds_CopyHandedToHold() {
+        when(bookRepository.findByIsbn("1234567890")).thenReturn(List.of(testBook));
+        Book copy = new Book();
+        copy.setId(2L);
+        copy.setAvailable(true);
+        when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(copy);
+        when(holdService.handOff(2L)).thenReturn(true);
+
+        Book result = bookService.registerBook("1234567890", "Test Book", "Test Author");
+
+        assertFalse(result.isAvailable());
+        verify(holdService).handOff(2L);
+    }
+
     @Test
     // Tests if able register book with Duplicate ISBN and Different Details
     void registerBook_DuplicateISBNDifferentDetails_ThrowsException() {
@@ -86,40 +125,110 @@ public class BookServiceTest {
 
     @Test
     void borrowBook_Success() {
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(testBorrower));
-        when(bookBorrowRepository.findActiveBookBorrow(1L)).thenReturn(Optional.empty());
+        when(borrowerRepository.existsById(1L)).thenReturn(true);
+        when(borrowerRepository.getReferenceById(1L)).thenReturn(testBorrower);
+        when(bookRepository.claimIfAvailable(1L)).thenReturn(1);
+        when(bookRepository.getReferenceById(1L)).thenReturn(testBook);
         when(bookBorrowRepository.save(any(BookBorrow.class))).thenReturn(testBookBorrow);
 
         BookBorrow result = bookService.borrowBook(1L, 1L);
 
         assertNotNull(result);
-        assertFalse(testBook.isAvailable());
+        verify(bookRepository).claimIfAvailable(1L);
         verify(bookBorrowRepository).save(any(BookBorrow.class));
     }
 
     @Test
     void borrowBook_BookNotAvailable_ThrowsException() {
-        testBook.setAvailable(false);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(testBorrower));
+        when(bookRepository.claimIfAvailable(1L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(true);
 
         assertThrows(IllegalStateException.class, () ->
                 bookService.borrowBook(1L, 1L)
         );
+        verify(bookBorrowRepository, never()).save(any(BookBorrow.class));
+    }
+
+    @Test
+    void borrowBook_BookNotFound_ThrowsException() {
+        when(bookRepository.claimIfAvailable(1L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () ->
+                bookService.borrowBook(1L, 1L)
+        );
     }
 
     @Test
     void returnBook_Success() {
         when(bookBorrowRepository.findActiveBookBorrow(1L)).thenReturn(Optional.of(testBookBorrow));
-        when(bookBorrowRepository.save(any(BookBorrow.class))).thenReturn(testBookBorrow);
+        when(bookBorrowRepository.markReturned(eq(1L), any(LocalDateTime.class))).thenReturn(1);
 
         BookBorrow result = bookService.returnBook(1L, 1L);
 
         assertNotNull(result);
         assertTrue(testBook.isAvailable());
         assertNotNull(result.getReturnDate());
-        verify(bookBorrowRepository).save(any(BookBorrow.class));
+        verify(bookRepository).markAvailable(1L);
+        verify(bookIsbnCache).evictBook(1L);
+        verify(catalogVersions).changed(CatalogVersions.Catalog.BOOKS);
+        verify(catalogChangeFeed).record(1L, CatalogChange.Type.RETURNED);
+        verify(holdService).handOff(1L);
+        verify(availabilityStream).publishAfterCommit(1L, true);
     }
-}
 
+    @Test
+    void returnBook_ConcurrentlyReturned_ThrowsException() {
+        when(bookBorrowRepository.findActiveBookBorrow(1L)).thenReturn(Optional.of(testBookBorrow));
+        when(bookBorrowRepository.markReturned(eq(1L), any(LocalDateTime.class))).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () ->
+                bookService.returnBook(1L, 1L)
+        );
+        verify(bookRepository, never()).markAvailable(1L);
+    }
+
+    @Test
+    void getBooksPage_LastPage_HasNoNextCursor() {
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(5L, Limit.of(11))).thenReturn(List.of(testBook));
+
+        CursorPage<Book> page = bookService.getBooksPage(CursorPage.encode(5L), 10);
+
+        assertEquals(List.of(testBook), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getBooksPage_InvalidCursor_ThrowsException() {
+        assertThrows(IllegalOperationException.class, () ->
+                bookService.getBooksPage("not-a-cursor", 10)
+        );
+    }
+
+    @Test
+    void borrowAnyCopy_Success() {
+        when(bookRepository.lockAvailableCopies("1234567890", Limit.of(1))).thenReturn(List.of(testBook));
+        when(bookRepository.claimIfAvailable(1L)).thenReturn(1);
+        when(bookRepository.getReferenceById(1L)).thenReturn(testBook);
+        when(borrowerRepository.existsById(1L)).thenReturn(true);
+        when(borrowerRepository.getReferenceById(1L)).thenReturn(testBorrower);
+        when(bookBorrowRepository.save(any(BookBorrow.class))).thenReturn(testBookBorrow);
+
+        BookBorrow result = bookService.borrowAnyCopy(1L, "1234567890");
+
+        assertNotNull(result);
+        verify(bookRepository).claimIfAvailable(1L);
+    }
+
+    @Test
+    void borrowAnyCopy_NoCopyAvailable_ThrowsException() {
+        when(bookRepository.lockAvailableCopies("1234567890", Limit.of(1))).thenReturn(List.of());
+        when(bookRepository.findAvailabilityByIsbn("1234567890"))
+                .thenReturn(Optional.of(new BookDto.Availability("1234567890", 2, 0)));
+
+        assertThrows(IllegalStateException.class, () ->
+                bookService.borrowAnyCopy(1L, "1234567890")
+        );
+        verify(bookRepository, never()).claimIfAvailable(any());
+    }
+}
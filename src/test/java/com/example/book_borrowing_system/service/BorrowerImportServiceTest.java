@@ -0,0 +1,94 @@
+package com.example.book_borrowing_system.service;
+
+import com.example.book_borrowing_system.cache.CatalogVersions;
+import com.example.book_borrowing_system.config.BulkProperties;
+import com.example.book_borrowing_system.dto.BorrowerDto;
+import com.example.book_borrowing_system.repository.BorrowerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BorrowerImportServiceTest {
+    @Mock
+    private BorrowerRepository borrowerRepository;
+
+    @Mock
+    private BulkProperties bulkProperties;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    @InjectMocks
+    private BorrowerImportService borrowerImportService;
+
+    // Tests that the rows of a chunk failing to commit are reported as errors, never as imported progress
+    @Test
+    void importBorrowers_ChunkFails_ReportsRowsAfterRollback() throws Exception {
+        when(bulkProperties.getChunkSize()).thenReturn(2);
+        AtomicInteger chunks = new AtomicInteger();
+        List<BorrowerDto.ImportEvent> events = new ArrayList<>();
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            if (chunks.incrementAndGet() == 2) {
+                throw new CannotCreateTransactionException("Connection refused");
+            }
+            return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+        });
+
+        String csv = """
+                name,email
+                Ann,ann@example.com
+                Ben,ben@example.com
+                Cat,cat@example.com
+                Dan,dan@example.com
+                Cat Again,cat@example.com
+                """;
+        BorrowerDto.ImportEvent summary = borrowerImportService.importBorrowers(
+                new BufferedReader(new StringReader(csv)), BorrowerDto.ImportFormat.CSV, events::add);
+
+        assertEquals(5, summary.getProcessed());
+        // The email of a rolled-back row can be imported again later in the file
+        assertEquals(3, summary.getImported());
+        assertEquals(2, summary.getFailed());
+
+        assertEquals(BorrowerDto.ImportEventType.PROGRESS, events.get(0).getType());
+        assertEquals(2, events.get(0).getImported());
+        assertEquals(BorrowerDto.ImportEventType.ERROR, events.get(1).getType());
+        assertEquals(4, events.get(1).getLine());
+        assertEquals(BorrowerDto.ImportEventType.ERROR, events.get(2).getType());
+        assertEquals(5, events.get(2).getLine());
+        assertEquals(BorrowerDto.ImportEventType.PROGRESS, events.get(3).getType());
+        assertEquals(2, events.get(3).getImported());
+        assertEquals(3, events.get(4).getImported());
+    }
+}
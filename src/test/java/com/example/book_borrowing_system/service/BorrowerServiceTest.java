@@ -1,5 +1,7 @@
 package com.example.book_borrowing_system.service;
 
+import com.example.book_borrowing_system.cache.CatalogVersions;
+import com.example.book_borrowing_system.dto.CursorPage;
 import com.example.book_borrowing_system.exception.DuplicateResourceException;
 import com.example.book_borrowing_system.exception.ResourceNotFoundException;
 import com.example.book_borrowing_system.model.Borrower;
@@ -10,7 +12,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,6 +29,9 @@ public class BorrowerServiceTest {
     @Mock
     private BorrowerRepository borrowerRepository;
 
+    @Mock
+    private CatalogVersions catalogVersions;
+
     @InjectMocks
     private BorrowerService borrowerService;
 
@@ -48,6 +55,7 @@ public class BorrowerServiceTest {
         assertNotNull(result);
         assertEquals(testBorrower.getEmail(), result.getEmail());
         verify(borrowerRepository).save(any(Borrower.class));
+        verify(catalogVersions).changed(CatalogVersions.Catalog.BORROWERS);
     }
 
     @Test
@@ -77,4 +85,17 @@ public class BorrowerServiceTest {
                 borrowerService.getBorrowerById(1L)
         );
     }
+
+    @Test
+    void getBorrowersPage_MoreRows_ReturnsNextCursor() {
+        Borrower second = new Borrower();
+        second.setId(2L);
+        when(borrowerRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(List.of(testBorrower, second));
+
+        CursorPage<Borrower> page = borrowerService.getBorrowersPage(null, 1);
+
+        assertEquals(List.of(testBorrower), page.getItems());
+        assertEquals(1L, CursorPage.decode(page.getNextCursor()));
+    }
 }